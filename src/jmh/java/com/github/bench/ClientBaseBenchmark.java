@@ -0,0 +1,92 @@
+package com.github.bench;
+
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.rest.ClientBase;
+import com.github.rest.GistRequests;
+import com.github.test.server.GistStandInServer;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request building and full {@link ClientBase} round trips against the in-memory API stand-in on loopback,
+ * so the numbers cover the client stack (pool, exchange, body handling, decoding) without network noise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.config.file=/dev/null")
+public class ClientBaseBenchmark {
+    private static final String OWNER = "bench";
+    private static final String TOKEN = "bench-token";
+    private GistStandInServer server;
+    private ClientBase client;
+    private GistRequests requests;
+    private String gistId;
+
+    @Setup
+    public void setUp() throws IOException, ParseException {
+        server = new GistStandInServer(OWNER, TOKEN, 0);
+        server.start();
+        client = new ClientBase();
+        requests = new GistRequests(server.getBaseUrl(), TOKEN);
+        for (var i = 0; i < 30; i++) {
+            var body = "{\"description\": \"bench\", \"files\": {\"file" + i + "\": {\"content\": \"content\"}}}";
+            var payload = client.executeRequestWithEntity(requests.create(new StringEntity(body))).getPayload();
+            gistId = GistCodec.readGist(payload).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public HttpGet buildRequest() {
+        return requests.get(gistId);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getPayload() throws IOException, ParseException {
+        return client.get(requests.get(gistId)).getPayload();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Gist getGistStreaming() throws IOException {
+        try (var parser = client.get(requests.get(gistId)).getParser()) {
+            return GistCodec.readGist(parser);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Gist> listPage() throws IOException {
+        try (var parser = client.get(requests.userGists(OWNER, Map.of())).getParser()) {
+            return GistCodec.readGists(parser);
+        }
+    }
+}
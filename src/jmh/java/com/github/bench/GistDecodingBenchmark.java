@@ -0,0 +1,104 @@
+package com.github.bench;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.models.CompactGist;
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.models.GistProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding cost of gist pages and of a single gist with a 1 MB file. The {@code newMapper} variant reproduces
+ * the former per-call {@code ObjectMapper} for comparison, the {@code compact} variant decodes into
+ * {@link CompactGist} (see {@link GistFootprint} for the memory side). The {@code ids}, {@code metadata} and
+ * {@code count} variants decode only part of each gist, see {@link GistProjection}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GistDecodingBenchmark {
+    @Param({"30", "100"})
+    public int listSize;
+    private byte[] list;
+    private byte[] largeGist;
+
+    @Setup
+    public void setUp() throws IOException {
+        list = GistFixtures.gistList(listSize);
+        largeGist = GistFixtures.gistWithContent(1024 * 1024);
+    }
+
+    @Benchmark
+    public List<Gist> decodeList() throws IOException {
+        return GistCodec.readGists(list);
+    }
+
+    @Benchmark
+    public List<Gist> decodeListNewMapper() throws IOException {
+        var mapper = new ObjectMapper();
+        var listType = mapper.getTypeFactory().constructCollectionType(List.class, Gist.class);
+        return mapper.readValue(list, listType);
+    }
+
+    @Benchmark
+    public List<CompactGist> decodeListCompact() throws IOException {
+        return GistCodec.readCompactGists(list);
+    }
+
+    @Benchmark
+    public List<String> decodeListIds() throws IOException {
+        return GistCodec.readGistIds(list);
+    }
+
+    @Benchmark
+    public List<Gist> decodeListMetadata() throws IOException {
+        return GistCodec.readGists(list, GistProjection.METADATA);
+    }
+
+    @Benchmark
+    public int countList() throws IOException {
+        try (var parser = GistCodec.jsonFactory().createParser(list)) {
+            return GistCodec.countGists(parser);
+        }
+    }
+
+    @Benchmark
+    public Gist decodeLargeGist() throws IOException {
+        return GistCodec.readGist(largeGist);
+    }
+
+    @Benchmark
+    public Gist decodeLargeGistMetadata() throws IOException {
+        return GistCodec.readGist(largeGist, GistProjection.METADATA);
+    }
+
+    @Benchmark
+    public Gist decodeLargeGistNewMapper() throws IOException {
+        var mapper = new ObjectMapper();
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return mapper.readValue(largeGist, Gist.class);
+    }
+
+    @Benchmark
+    public CompactGist decodeLargeGistCompact() throws IOException {
+        return GistCodec.readCompactGist(largeGist);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Synthetic API payloads shaped like real {@code /users/{user}/gists} and {@code /gists/{id}} responses,
+ * including the owner and file fields the models ignore.
+ */
+final class GistFixtures {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private GistFixtures() {
+    }
+
+    static byte[] gistList(int size) throws IOException {
+        return gistList(size, 0);
+    }
+
+    /**
+     * @param offset index of the first gist, so that consecutive pages hold distinct gists
+     */
+    static byte[] gistList(int size, int offset) throws IOException {
+        var list = MAPPER.createArrayNode();
+        for (var i = offset; i < offset + size; i++) {
+            list.add(gist(i, "file" + i + ".txt", null));
+        }
+        return MAPPER.writeValueAsBytes(list);
+    }
+
+    /**
+     * Gists whose description and content are drawn from a vocabulary of {@code word0..word4999}, skewed towards
+     * low numbers the way natural text repeats its common words.
+     */
+    static byte[] textGistList(int size, int wordsPerGist) throws IOException {
+        var random = new Random(size);
+        var list = MAPPER.createArrayNode();
+        for (var i = 0; i < size; i++) {
+            var text = new StringBuilder();
+            for (var w = 0; w < wordsPerGist; w++) {
+                text.append("word").append(random.nextInt(random.nextInt(5000) + 1)).append(w % 12 == 11 ? ".\n" : " ");
+            }
+            var gist = gist(i, "snippet" + i + ".md", text.toString());
+            gist.put("description", "note " + i + " word" + random.nextInt(5000));
+            list.add(gist);
+        }
+        return MAPPER.writeValueAsBytes(list);
+    }
+
+    static byte[] gistWithContent(int contentSize) throws IOException {
+        var chars = new char[contentSize];
+        Arrays.fill(chars, 'f');
+        return MAPPER.writeValueAsBytes(gist(0, "large.txt", new String(chars)));
+    }
+
+    private static ObjectNode gist(int index, String fileName, String content) {
+        var id = String.format("%032x", index + 0x5eed);
+        var gist = MAPPER.createObjectNode()
+                .put("url", "https://api.github.com/gists/" + id)
+                .put("forks_url", "https://api.github.com/gists/" + id + "/forks")
+                .put("commits_url", "https://api.github.com/gists/" + id + "/commits")
+                .put("id", id)
+                .put("node_id", "G_kwDOA" + id)
+                .put("git_pull_url", "https://gist.github.com/" + id + ".git")
+                .put("html_url", "https://gist.github.com/bench/" + id);
+        var file = gist.putObject("files").putObject(fileName)
+                .put("filename", fileName)
+                .put("type", "text/plain")
+                .put("language", "Text")
+                .put("raw_url", "https://gist.githubusercontent.com/bench/" + id + "/raw/"
+                        + String.format("%040x", index) + "/" + fileName)
+                .put("size", Objects.isNull(content) ? 11 : content.length());
+        if (Objects.nonNull(content)) {
+            file.put("truncated", false).put("content", content);
+        }
+        gist.put("public", index % 2 == 0)
+                .put("created_at", "2024-01-01T00:00:00Z")
+                .put("updated_at", "2024-01-01T00:00:00Z")
+                .put("description", "testDescription " + index)
+                .put("comments", 0);
+        gist.putNull("user");
+        gist.putObject("owner")
+                .put("login", "bench")
+                .put("id", 1)
+                .put("node_id", "MDQ6VXNlcjE=")
+                .put("avatar_url", "https://avatars.githubusercontent.com/u/1?v=4")
+                .put("url", "https://api.github.com/users/bench")
+                .put("html_url", "https://github.com/bench")
+                .put("type", "User")
+                .put("site_admin", false);
+        gist.put("truncated", false);
+        return gist;
+    }
+}
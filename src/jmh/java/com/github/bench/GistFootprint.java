@@ -0,0 +1,68 @@
+package com.github.bench;
+
+import com.github.models.GistCodec;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retained heap per gist of a decoded listing, {@link com.github.models.Gist} against
+ * {@link com.github.models.CompactGist}. JMH measures allocation, not what stays reachable, so this is a plain
+ * program: it decodes pages of 100 distinct gists and compares the used heap after full GCs.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.bench.GistFootprint -Dexec.args=100000}, the argument is how many gists to hold.
+ */
+public final class GistFootprint {
+    private static final int PAGE_SIZE = 100;
+
+    private GistFootprint() {
+    }
+
+    private interface PageDecoder {
+        List<?> decode(byte[] page) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var gists = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        var pages = new ArrayList<byte[]>();
+        for (var offset = 0; offset < gists; offset += PAGE_SIZE) {
+            pages.add(GistFixtures.gistList(Math.min(PAGE_SIZE, gists - offset), offset));
+        }
+        // decode once untimed, so class loading and Jackson caches are not attributed to either model
+        measure(pages, GistCodec::readGists);
+        measure(pages, GistCodec::readCompactGists);
+
+        var full = measure(pages, GistCodec::readGists);
+        var compact = measure(pages, GistCodec::readCompactGists);
+        System.out.printf("%,d gists%n", gists);
+        System.out.printf("Gist:        %,8.1f bytes per gist%n", (double) full / gists);
+        System.out.printf("CompactGist: %,8.1f bytes per gist (%.0f%% of Gist)%n", (double) compact / gists,
+                100.0 * compact / full);
+    }
+
+    private static long measure(List<byte[]> pages, PageDecoder decoder) throws IOException {
+        var before = usedHeap();
+        var retained = new ArrayList<Object>();
+        for (var page : pages) {
+            retained.addAll(decoder.decode(page));
+        }
+        var after = usedHeap();
+        if (retained.isEmpty()) {
+            throw new IllegalStateException("Nothing was decoded");
+        }
+        // the list of references is the caller's cost with either model
+        var references = (long) retained.size() * Integer.BYTES;
+        return after - before - references;
+    }
+
+    private static long usedHeap() {
+        var memory = ManagementFactory.getMemoryMXBean();
+        for (var i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
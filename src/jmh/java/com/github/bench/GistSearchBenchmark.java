@@ -0,0 +1,70 @@
+package com.github.bench;
+
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.search.GistSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link GistSearch} over tens of thousands of gists of 200 words each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GistSearchBenchmark {
+    @Param({"20000"})
+    public int gists;
+    private GistSearch search;
+    private String phrase;
+
+    @Setup
+    public void setUp() throws IOException {
+        var list = GistCodec.readGists(GistFixtures.textGistList(gists, 200));
+        search = new GistSearch();
+        search.addAll(list);
+        var words = list.get(gists / 2).getFiles().values().iterator().next().getContent().split(" ");
+        phrase = words[3] + " " + words[4] + " " + words[5];
+    }
+
+    @Benchmark
+    public List<String> rareTerm() {
+        return search.term("word4321");
+    }
+
+    @Benchmark
+    public List<String> commonTerm() {
+        return search.term("word7");
+    }
+
+    @Benchmark
+    public List<String> prefix() {
+        return search.prefix("word432");
+    }
+
+    @Benchmark
+    public List<String> phrase() {
+        return search.phrase(phrase);
+    }
+
+    @Benchmark
+    public List<String> query() {
+        return search.search("word12 word345 snippet1*");
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.bench;
+
+import com.github.models.GistCodec;
+import com.github.models.GistRequest;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import com.github.rest.GistRequests;
+import com.github.test.server.GistStandInServer;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent GETs through the pooled HTTP/1.1 transport (one connection per in-flight request) against the
+ * HTTP/2 transport (all requests multiplexed over one h2c connection), each against its own stand-in server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.config.file=/dev/null")
+@Threads(32)
+public class TransportBenchmark {
+    private static final String OWNER = "bench";
+    private static final String TOKEN = "bench-token";
+    @Param({"HTTP_1_1", "HTTP_2"})
+    public String transport;
+    private GistStandInServer server;
+    private ClientBase client;
+    private GistRequests requests;
+    private String gistId;
+
+    @Setup
+    public void setUp() throws IOException, ParseException {
+        var h2 = "HTTP_2".equals(transport);
+        server = new GistStandInServer(OWNER, TOKEN, 0, h2);
+        server.start();
+        var config = ClientConfig.builder();
+        if (h2) {
+            config.httpVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2);
+        }
+        client = new ClientBase(config.build());
+        requests = new GistRequests(server.getBaseUrl(), TOKEN);
+        var created = client.executeRequestWithEntity(requests.create(GistRequest.builder()
+                .description("bench")
+                .file("bench.txt", "content")
+                .build()));
+        gistId = GistCodec.readGist(created.getPayload()).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String getGist() throws IOException, ParseException {
+        return client.get(requests.get(gistId)).getPayload();
+    }
+}
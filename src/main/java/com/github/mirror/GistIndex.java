@@ -0,0 +1,194 @@
+package com.github.mirror;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Memory-mapped open-addressing table from gist id to the offset of its current record in the {@link GistLog}.
+ * <p>
+ * A slot holds a 64-bit hash of the id and the record offset; the id itself lives only in the log, so a hash match
+ * is confirmed by reading it from there. The header records how much of the log the table covers, which lets a
+ * reopened mirror replay just the records appended after the last index update.
+ */
+final class GistIndex implements Closeable {
+    private static final int MAGIC = 0x47494458;
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;
+    private static final int SLOT = Long.BYTES * 2;
+    private static final int MIN_CAPACITY = 1024;
+    private static final long EMPTY = 0;
+    private final Path file;
+    private MappedByteBuffer map;
+    private int capacity;
+    private int size;
+
+    interface IdReader {
+        String id(long offset) throws IOException;
+    }
+
+    interface SlotVisitor {
+        void visit(long offset) throws IOException;
+    }
+
+    private GistIndex(Path file, MappedByteBuffer map) {
+        this.file = file;
+        this.map = map;
+        this.capacity = map.getInt(8);
+        this.size = map.getInt(12);
+    }
+
+    /**
+     * @return the existing index, or {@code null} if the file is missing or not an index of this version
+     */
+    static GistIndex open(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER) {
+            return null;
+        }
+        var map = map(file, Files.size(file));
+        var capacity = map.getInt(8);
+        if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || Integer.bitCount(capacity) != 1
+                || Files.size(file) != HEADER + (long) capacity * SLOT) {
+            return null;
+        }
+        return new GistIndex(file, map);
+    }
+
+    static GistIndex create(Path file) throws IOException {
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        write(temp, MIN_CAPACITY).force();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new GistIndex(file, map(file, Files.size(file)));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return bytes of the log this index accounts for
+     */
+    long logLength() {
+        return map.getLong(16);
+    }
+
+    void logLength(long length) {
+        map.putLong(16, length);
+    }
+
+    /**
+     * @return offset of the current record of {@code id}, {@code -1} if it was never stored
+     */
+    long get(String id, IdReader ids) throws IOException {
+        var slot = find(id, hash(id), ids);
+        return map.getLong(position(slot)) == EMPTY ? -1 : map.getLong(position(slot) + Long.BYTES);
+    }
+
+    void put(String id, long offset, IdReader ids) throws IOException {
+        var hash = hash(id);
+        var slot = find(id, hash, ids);
+        var position = position(slot);
+        if (map.getLong(position) == EMPTY) {
+            map.putLong(position, hash);
+            map.putInt(12, ++size);
+        }
+        map.putLong(position + Long.BYTES, offset);
+        if (size > capacity / 4 * 3) {
+            grow();
+        }
+    }
+
+    void forEach(SlotVisitor visitor) throws IOException {
+        for (var slot = 0; slot < capacity; slot++) {
+            if (map.getLong(position(slot)) != EMPTY) {
+                visitor.visit(map.getLong(position(slot) + Long.BYTES));
+            }
+        }
+    }
+
+    void force() {
+        map.force();
+    }
+
+    private int find(String id, long hash, IdReader ids) throws IOException {
+        var mask = capacity - 1;
+        for (var slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            var stored = map.getLong(position(slot));
+            if (stored == EMPTY || stored == hash && id.equals(ids.id(map.getLong(position(slot) + Long.BYTES)))) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Rehashes into a table of twice the capacity, written next to the current one and moved over it.
+     */
+    private void grow() throws IOException {
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        var grown = write(temp, capacity * 2);
+        var mask = capacity * 2 - 1;
+        for (var slot = 0; slot < capacity; slot++) {
+            var hash = map.getLong(position(slot));
+            if (hash == EMPTY) {
+                continue;
+            }
+            var target = (int) hash & mask;
+            while (grown.getLong(position(target)) != EMPTY) {
+                target = (target + 1) & mask;
+            }
+            grown.putLong(position(target), hash);
+            grown.putLong(position(target) + Long.BYTES, map.getLong(position(slot) + Long.BYTES));
+        }
+        grown.putInt(12, size);
+        grown.putLong(16, logLength());
+        grown.force();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map = grown;
+        capacity *= 2;
+    }
+
+    private static MappedByteBuffer write(Path file, int capacity) throws IOException {
+        var map = map(file, HEADER + (long) capacity * SLOT);
+        map.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, capacity).putInt(12, 0).putLong(16, 0);
+        return map;
+    }
+
+    private static MappedByteBuffer map(Path file, long length) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // a fresh file is extended with zeros, i.e. empty slots
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+    }
+
+    private static int position(int slot) {
+        return HEADER + slot * SLOT;
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 id; never {@link #EMPTY}.
+     */
+    static long hash(String id) {
+        var hash = 0xcbf29ce484222325L;
+        for (var b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 32;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    @Override
+    public void close() {
+        if (Objects.nonNull(map)) {
+            map.force();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.mirror;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of gist versions. A record is never changed once written; an update appends a new version and
+ * a deletion appends a tombstone, the index decides which record is current.
+ * <p>
+ * Record layout: {@code int bodyLength, int crc32(body)}, then the body {@code byte type, long updatedAt,
+ * short idLength, id (UTF-8), payload}. A record cut short by a crash fails its length or checksum and is cut off
+ * on {@link #recover(long, RecordVisitor) recovery}.
+ */
+final class GistLog implements Closeable {
+    static final byte GIST = 1;
+    static final byte TOMBSTONE = 2;
+    private static final int HEADER = Integer.BYTES * 2;
+    private static final int BODY_PREFIX = Byte.BYTES + Long.BYTES + Short.BYTES;
+    private static final int MAX_BODY = 64 * 1024 * 1024;
+    private static final int MAX_ID = 0xFFFF;
+    private final FileChannel channel;
+    private long end;
+
+    GistLog(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.end = channel.size();
+    }
+
+    interface RecordVisitor {
+        void visit(long offset, byte type, String id) throws IOException;
+    }
+
+    /**
+     * Header fields of a record, without its payload.
+     */
+    static final class Entry {
+        final byte type;
+        final long updatedAt;
+        final String id;
+
+        Entry(byte type, long updatedAt, String id) {
+            this.type = type;
+            this.updatedAt = updatedAt;
+            this.id = id;
+        }
+    }
+
+    long end() {
+        return end;
+    }
+
+    /**
+     * @return offset of the new record
+     * @throws IllegalArgumentException if the id or the record is too long for the layout; recovery would cut off
+     *                                  such a record and everything after it
+     */
+    long append(byte type, String id, long updatedAt, byte[] payload) throws IOException {
+        var idBytes = id.getBytes(StandardCharsets.UTF_8);
+        if (idBytes.length > MAX_ID) {
+            throw new IllegalArgumentException("Gist id is longer than " + MAX_ID + " bytes");
+        }
+        if (payload.length > MAX_BODY - BODY_PREFIX - idBytes.length) {
+            throw new IllegalArgumentException("Gist " + id + " is too large for the log: " + payload.length
+                    + " bytes, at most " + (MAX_BODY - BODY_PREFIX - idBytes.length));
+        }
+        var bodyLength = BODY_PREFIX + idBytes.length + payload.length;
+        var record = ByteBuffer.allocate(HEADER + bodyLength);
+        record.position(HEADER);
+        record.put(type).putLong(updatedAt).putShort((short) idBytes.length).put(idBytes).put(payload);
+        var crc = new CRC32();
+        crc.update(record.array(), HEADER, bodyLength);
+        record.putInt(0, bodyLength).putInt(Integer.BYTES, (int) crc.getValue());
+        record.rewind();
+        var offset = end;
+        write(record, offset);
+        end += record.capacity();
+        return offset;
+    }
+
+    Entry entry(long offset) throws IOException {
+        var prefix = read(offset + HEADER, BODY_PREFIX);
+        var type = prefix.get();
+        var updatedAt = prefix.getLong();
+        var idLength = Short.toUnsignedInt(prefix.getShort());
+        var id = read(offset + HEADER + BODY_PREFIX, idLength);
+        return new Entry(type, updatedAt, StandardCharsets.UTF_8.decode(id).toString());
+    }
+
+    String id(long offset) throws IOException {
+        return entry(offset).id;
+    }
+
+    byte[] payload(long offset) throws IOException {
+        var header = read(offset, HEADER + BODY_PREFIX);
+        var bodyLength = header.getInt(0);
+        var idLength = Short.toUnsignedInt(header.getShort(HEADER + Byte.BYTES + Long.BYTES));
+        var skip = BODY_PREFIX + idLength;
+        return read(offset + HEADER + skip, bodyLength - skip).array();
+    }
+
+    /**
+     * Visits the records from {@code from} on and truncates the file at the first one that is incomplete or fails
+     * its checksum.
+     *
+     * @return {@code true} if a torn tail was cut off
+     */
+    boolean recover(long from, RecordVisitor visitor) throws IOException {
+        var size = channel.size();
+        var offset = from;
+        while (offset < size) {
+            if (size - offset < HEADER + BODY_PREFIX) {
+                break;
+            }
+            var header = read(offset, HEADER);
+            var bodyLength = header.getInt(0);
+            if (bodyLength < BODY_PREFIX || bodyLength > MAX_BODY || offset + HEADER + bodyLength > size) {
+                break;
+            }
+            var body = read(offset + HEADER, bodyLength);
+            var crc = new CRC32();
+            crc.update(body.array(), 0, bodyLength);
+            if ((int) crc.getValue() != header.getInt(Integer.BYTES)) {
+                break;
+            }
+            var type = body.get();
+            body.getLong();
+            var idLength = Short.toUnsignedInt(body.getShort());
+            var id = new String(body.array(), BODY_PREFIX, idLength, StandardCharsets.UTF_8);
+            visitor.visit(offset, type, id);
+            offset += HEADER + bodyLength;
+        }
+        end = offset;
+        if (offset < size) {
+            channel.truncate(offset);
+            return true;
+        }
+        return false;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Record at " + position + " ends past the end of the log");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,529 @@
+package com.github.mirror;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.models.GistFile;
+import com.github.models.GistProjection;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientExecutors;
+import com.github.rest.GistPager;
+import com.github.rest.GistRequests;
+import com.github.rest.RawDownloadOptions;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.ParseException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Local copy of the gists of one account, with file contents, kept in a directory.
+ * <p>
+ * Gist versions are appended to a log and found through a memory-mapped id index, so {@link #get(String)} and
+ * {@link #list()} are answered from disk without a request, and reopening a mirror only replays what was appended
+ * after the index was last updated. {@link #refresh()} lists what changed {@code since} the newest
+ * {@code updated_at} seen (answered with {@code 304} through the listing's {@code ETag} when nothing did) and fetches
+ * just those gists. Deletions do not show up in such a listing; they are found by a periodic full
+ * {@link #reconcile()}.
+ * <p>
+ * Reads may run concurrently with a refresh; refreshes are serialized.
+ */
+public class GistMirror implements Closeable {
+    private static final String LOG = "gists.log";
+    private static final String INDEX = "gists.idx";
+    private static final String STATE = "mirror.properties";
+    /**
+     * Listings only tell which gists changed; changed gists are then read in full.
+     */
+    private static final GistProjection LISTING = GistProjection.of("id", "updated_at");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private final Path directory;
+    private final ClientBase client;
+    private final GistRequests requests;
+    private final String owner;
+    private final MirrorOptions options;
+    private final GistLog log;
+    private final GistIndex index;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private String since;
+    private String etag;
+    private String etagSince;
+    private Instant lastReconcile = Instant.EPOCH;
+
+    private GistMirror(Path directory, ClientBase client, GistRequests requests, String owner,
+                       MirrorOptions options) throws IOException {
+        this.directory = directory;
+        this.client = client;
+        this.requests = requests;
+        this.owner = owner;
+        this.options = options;
+        this.log = new GistLog(directory.resolve(LOG));
+        var existing = GistIndex.open(directory.resolve(INDEX));
+        if (Objects.isNull(existing) || existing.logLength() > log.end()) {
+            // missing, foreign or ahead of a log that lost its tail: rebuild from the log
+            existing = GistIndex.create(directory.resolve(INDEX));
+        }
+        if (log.recover(existing.logLength(), replay(existing))) {
+            // slots flushed before the crash may point into the tail that was cut off
+            existing = GistIndex.create(directory.resolve(INDEX));
+            log.recover(0, replay(existing));
+        }
+        this.index = existing;
+        index.logLength(log.end());
+        loadState();
+    }
+
+    private GistLog.RecordVisitor replay(GistIndex target) {
+        return (offset, type, id) -> target.put(id, offset, log::id);
+    }
+
+    public static GistMirror open(Path directory, ClientBase client, GistRequests requests, String owner)
+            throws IOException {
+        return open(directory, client, requests, owner, MirrorOptions.defaults());
+    }
+
+    /**
+     * Opens the mirror kept in {@code directory}, creating an empty one if there is none.
+     */
+    public static GistMirror open(Path directory, ClientBase client, GistRequests requests, String owner,
+                                  MirrorOptions options) throws IOException {
+        Files.createDirectories(directory);
+        return new GistMirror(directory, client, requests, owner, options);
+    }
+
+    /**
+     * @return the stored gist with its file contents, {@code null} if it is not mirrored or was deleted
+     */
+    public Gist get(String id) throws IOException {
+        lock.readLock().lock();
+        try {
+            var offset = index.get(id, log::id);
+            if (offset < 0 || log.entry(offset).type != GistLog.GIST) {
+                return null;
+            }
+            return GistCodec.readGist(log.payload(offset));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return all mirrored gists, newest first
+     */
+    public List<Gist> list() throws IOException {
+        var gists = new ArrayList<Gist>();
+        lock.readLock().lock();
+        try {
+            index.forEach(offset -> {
+                if (log.entry(offset).type == GistLog.GIST) {
+                    gists.add(GistCodec.readGist(log.payload(offset)));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        gists.sort(Comparator.comparing(Gist::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return gists;
+    }
+
+    /**
+     * @return number of mirrored gists
+     */
+    public int size() throws IOException {
+        return liveVersions().size();
+    }
+
+    /**
+     * @return newest {@code updated_at} seen, the {@code since} of the next refresh; {@code null} before the first
+     */
+    public String getSince() {
+        return since;
+    }
+
+    /**
+     * Stores the gists changed since the previous refresh, or reconciles when
+     * {@link MirrorOptions#getReconcileInterval()} has passed since the last reconciliation.
+     */
+    public RefreshResult refresh() throws IOException {
+        refreshLock.lock();
+        try {
+            if (!Instant.now().isBefore(lastReconcile.plus(options.getReconcileInterval()))) {
+                return reconcileLocked();
+            }
+            var params = new LinkedHashMap<String, String>();
+            params.put("per_page", "100");
+            if (Objects.nonNull(since)) {
+                params.put("since", since);
+            }
+            var request = requests.userGists(owner, params);
+            if (Objects.nonNull(etag) && Objects.equals(etagSince, since)) {
+                request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            var listed = new ArrayList<Gist>();
+            String listingEtag;
+            URI next;
+            try (var response = client.get(request)) {
+                // a client with a response cache revalidates itself and answers 304 from the cache
+                if (response.getCode() == 304 || response.isFromCache()) {
+                    return RefreshResult.notModified();
+                }
+                checkListing(response);
+                listingEtag = response.getHeader(HttpHeaders.ETAG);
+                next = GistPager.parseNextLink(response.getHeader("Link"));
+                try (var parser = response.getParser()) {
+                    listed.addAll(GistCodec.readGists(parser, LISTING));
+                }
+            }
+            if (Objects.nonNull(next)) {
+                try (var rest = new GistPager(client, requests, ClientExecutors.shared(), LISTING).stream(next)) {
+                    rest.forEach(listed::add);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            var failures = new LinkedHashMap<String, String>();
+            var outcome = store(changed(listed), failures);
+            if (failures.isEmpty()) {
+                var queriedSince = since;
+                since = newest(listed, since);
+                // the ETag belongs to the query just made; it can only match again once since stops moving
+                etag = listingEtag;
+                etagSince = queriedSince;
+            }
+            sync();
+            return new RefreshResult(false, outcome[0], outcome[1], false, failures);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Lists the whole account, stores what changed and drops the mirrored gists that are no longer listed.
+     */
+    public RefreshResult reconcile() throws IOException {
+        refreshLock.lock();
+        try {
+            return reconcileLocked();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private RefreshResult reconcileLocked() throws IOException {
+        var started = Instant.now();
+        List<Gist> listed;
+        try (var gists = new GistPager(client, requests, ClientExecutors.shared(), LISTING)
+                .userGists(owner, Map.of("per_page", "100"))) {
+            listed = new ArrayList<>();
+            gists.forEach(listed::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        var listedIds = new HashSet<String>();
+        listed.forEach(gist -> listedIds.add(gist.getId()));
+        var gone = new ArrayList<String>();
+        for (var id : liveVersions().keySet()) {
+            if (!listedIds.contains(id)) {
+                gone.add(id);
+            }
+        }
+        var failures = new LinkedHashMap<String, String>();
+        var outcome = store(changed(listed), failures);
+        for (var id : gone) {
+            appendTombstone(id);
+        }
+        if (failures.isEmpty()) {
+            since = newest(listed, null);
+            etag = null;
+            etagSince = null;
+        }
+        lastReconcile = started;
+        sync();
+        return new RefreshResult(false, outcome[0], outcome[1] + gone.size(), true, failures);
+    }
+
+    private static void checkListing(ClientBase.HttpResponseReader response) throws IOException {
+        if (response.getCode() != 200) {
+            try {
+                throw new IOException("Listing gists failed with status " + response.getCode() + ": "
+                        + response.getPayload());
+            } catch (ParseException e) {
+                throw new IOException("Listing gists failed with status " + response.getCode(), e);
+            }
+        }
+    }
+
+    /**
+     * @return ids of listed gists whose stored version is missing or older
+     */
+    private List<String> changed(List<Gist> listed) throws IOException {
+        var changed = new ArrayList<String>();
+        lock.readLock().lock();
+        try {
+            for (var gist : listed) {
+                var offset = index.get(gist.getId(), log::id);
+                if (offset < 0) {
+                    changed.add(gist.getId());
+                    continue;
+                }
+                var entry = log.entry(offset);
+                if (entry.type != GistLog.GIST || entry.updatedAt != millis(gist.getUpdatedAt())) {
+                    changed.add(gist.getId());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return changed;
+    }
+
+    /**
+     * Fetches the gists with {@link MirrorOptions#getParallelism()} requests in flight and appends each as it
+     * arrives.
+     *
+     * @return number of gists stored and number found deleted
+     */
+    private int[] store(Collection<String> ids, Map<String, String> failures) {
+        var queue = new ConcurrentLinkedQueue<>(ids);
+        var errors = new ConcurrentHashMap<String, String>();
+        var stored = new int[2];
+        var workers = new ArrayList<CompletableFuture<Void>>();
+        for (var i = 0; i < Math.min(options.getParallelism(), ids.size()); i++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                for (var id = queue.poll(); Objects.nonNull(id); id = queue.poll()) {
+                    try {
+                        var version = fetch(id);
+                        lock.writeLock().lock();
+                        try {
+                            if (Objects.isNull(version)) {
+                                stored[1] += appendTombstone(id) ? 1 : 0;
+                            } else {
+                                append(GistLog.GIST, id, version.updatedAt, version.payload);
+                                stored[0]++;
+                            }
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        errors.put(id, e.toString());
+                    }
+                }
+            }, ClientExecutors.shared()));
+        }
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture<?>[0])).join();
+        ids.stream().filter(errors::containsKey).forEach(id -> failures.put(id, errors.get(id)));
+        lock.writeLock().lock();
+        try {
+            return stored.clone();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static final class Version {
+        private final long updatedAt;
+        private final byte[] payload;
+
+        Version(long updatedAt, byte[] payload) {
+            this.updatedAt = updatedAt;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * @return the full gist, {@code null} if it no longer exists
+     */
+    private Version fetch(String id) throws IOException {
+        byte[] payload;
+        try (var response = client.get(requests.get(id))) {
+            if (response.getCode() == 404) {
+                return null;
+            }
+            if (response.getCode() != 200) {
+                throw new IOException("Fetching gist " + id + " failed with status " + response.getCode());
+            }
+            try (var stream = response.getStream()) {
+                payload = stream.readAllBytes();
+            }
+        }
+        var gist = GistCodec.readGist(payload);
+        var updatedAt = millis(gist.getUpdatedAt());
+        if (!options.isFetchTruncatedContent() || Objects.isNull(gist.getFiles())
+                || gist.getFiles().values().stream().noneMatch(GistFile::isTruncated)) {
+            return new Version(updatedAt, payload);
+        }
+        return new Version(updatedAt, withFullContent(payload));
+    }
+
+    /**
+     * Replaces the cut content of truncated files with their {@code raw_url} download.
+     */
+    private byte[] withFullContent(byte[] payload) throws IOException {
+        var json = (ObjectNode) MAPPER.readTree(payload);
+        var files = json.path("files");
+        var names = new ArrayList<String>();
+        files.fieldNames().forEachRemaining(names::add);
+        var downloadOptions = RawDownloadOptions.builder().maxSize(options.getMaxFileSize()).build();
+        for (var name : names) {
+            var file = files.get(name);
+            if (!file.path("truncated").asBoolean() || !file.hasNonNull("raw_url")) {
+                continue;
+            }
+            var temp = Files.createTempFile(directory, "raw", ".tmp");
+            try {
+                client.downloadRaw(requests.get(URI.create(file.get("raw_url").asText())), temp, downloadOptions);
+                ((ObjectNode) file).put("content", Files.readString(temp, StandardCharsets.UTF_8))
+                        .put("truncated", false);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return MAPPER.writeValueAsBytes(json);
+    }
+
+    /**
+     * @return {@code true} if a mirrored gist was dropped
+     */
+    private boolean appendTombstone(String id) throws IOException {
+        lock.writeLock().lock();
+        try {
+            var offset = index.get(id, log::id);
+            if (offset < 0 || log.entry(offset).type == GistLog.TOMBSTONE) {
+                return false;
+            }
+            append(GistLog.TOMBSTONE, id, 0, new byte[0]);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(byte type, String id, long updatedAt, byte[] payload) throws IOException {
+        var offset = log.append(type, id, updatedAt, payload);
+        index.put(id, offset, log::id);
+        index.logLength(log.end());
+    }
+
+    /**
+     * @return offset of the current record by id, for gists that are not deleted
+     */
+    private Map<String, Long> liveVersions() throws IOException {
+        var live = new HashMap<String, Long>();
+        lock.readLock().lock();
+        try {
+            index.forEach(offset -> {
+                var entry = log.entry(offset);
+                if (entry.type == GistLog.GIST) {
+                    live.put(entry.id, offset);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return live;
+    }
+
+    private static String newest(List<Gist> gists, String current) {
+        var newest = current;
+        for (var gist : gists) {
+            if (Objects.nonNull(gist.getUpdatedAt())
+                    && (Objects.isNull(newest) || millis(gist.getUpdatedAt()) > millis(newest))) {
+                newest = gist.getUpdatedAt();
+            }
+        }
+        return newest;
+    }
+
+    private static long millis(String timestamp) {
+        if (Objects.isNull(timestamp)) {
+            return 0;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Makes the log, then the index, then the sync state durable, so the state never runs ahead of the data.
+     */
+    private void sync() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.force();
+            index.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        var state = new Properties();
+        putIfSet(state, "since", since);
+        putIfSet(state, "etag", etag);
+        putIfSet(state, "etagSince", etagSince);
+        state.setProperty("lastReconcile", lastReconcile.toString());
+        var temp = directory.resolve(STATE + ".tmp");
+        try (var out = Files.newOutputStream(temp)) {
+            state.store(out, "gist mirror of " + owner);
+        }
+        Files.move(temp, directory.resolve(STATE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void loadState() throws IOException {
+        var file = directory.resolve(STATE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        var state = new Properties();
+        try (var in = Files.newInputStream(file)) {
+            state.load(in);
+        }
+        since = state.getProperty("since");
+        etag = state.getProperty("etag");
+        etagSince = state.getProperty("etagSince");
+        lastReconcile = Instant.parse(state.getProperty("lastReconcile", Instant.EPOCH.toString()));
+    }
+
+    private static void putIfSet(Properties properties, String key, String value) {
+        if (Objects.nonNull(value)) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        refreshLock.lock();
+        try {
+            sync();
+            index.close();
+            log.close();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
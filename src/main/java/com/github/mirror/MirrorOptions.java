@@ -0,0 +1,41 @@
+package com.github.mirror;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link GistMirror}.
+ */
+@Getter
+@Builder
+@ToString
+public class MirrorOptions {
+    /**
+     * A {@code since} listing never reports deletions, so every so often a refresh lists the whole account and
+     * drops the gists that are gone.
+     */
+    @Builder.Default
+    private final Duration reconcileInterval = Duration.ofHours(1);
+    /**
+     * Full gists fetched concurrently when a refresh finds changes.
+     */
+    @Builder.Default
+    private final int parallelism = 4;
+    /**
+     * The API cuts file content at 1 MB; with this set the rest is downloaded from {@code raw_url}.
+     */
+    @Builder.Default
+    private final boolean fetchTruncatedContent = true;
+    /**
+     * Largest file downloaded from {@code raw_url}; the default is GitHub's 10 MB limit.
+     */
+    @Builder.Default
+    private final long maxFileSize = 10 * 1024 * 1024;
+
+    public static MirrorOptions defaults() {
+        return MirrorOptions.builder().build();
+    }
+}
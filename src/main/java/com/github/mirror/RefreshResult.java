@@ -0,0 +1,39 @@
+package com.github.mirror;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link GistMirror#refresh()}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class RefreshResult {
+    /**
+     * The listing answered {@code 304 Not Modified}: nothing changed since the previous refresh.
+     */
+    private final boolean notModified;
+    /**
+     * New and changed gists stored.
+     */
+    private final int stored;
+    /**
+     * Gists found deleted, by a failed fetch or by reconciliation.
+     */
+    private final int deleted;
+    private final boolean reconciled;
+    /**
+     * Gists that could not be fetched, with the reason; they are retried by the next refresh.
+     */
+    private final Map<String, String> failures;
+
+    static RefreshResult notModified() {
+        return new RefreshResult(true, 0, 0, false, Collections.emptyMap());
+    }
+}
@@ -0,0 +1,344 @@
+package com.github.models;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Read-only {@link Gist} for holding large collections in memory, e.g. every gist of a big account.
+ * <p>
+ * Owner logins and file names are deduplicated, {@code created_at} is kept as epoch milliseconds, files live in
+ * parallel arrays instead of a map of objects, a {@code raw_url} of the usual shape is reduced to its revision and
+ * file content is kept as UTF-8 bytes that become a string only when {@link #getContent(int) requested}.
+ * The API {@code url} and nested owner object are not kept.
+ */
+@JsonDeserialize(using = CompactGist.Deserializer.class)
+public final class CompactGist {
+    /**
+     * {@link #getCreatedAtMillis()} of a gist without {@code created_at}.
+     */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final String RAW_PREFIX = "https://gist.githubusercontent.com/";
+    private static final String[] NO_STRINGS = new String[0];
+    private static final StringPool NAMES = new StringPool(4096);
+    private final String id;
+    private final String description;
+    private final String ownerLogin;
+    private final long createdAt;
+    private final boolean isPublic;
+    private final boolean truncated;
+    private final String[] fileNames;
+    /**
+     * Full URL, or only the revision if the URL is {@code RAW_PREFIX + owner/id/raw/revision/fileName}.
+     */
+    private final String[] rawUrls;
+    /**
+     * {@code null} if no file came with content; a {@code null} element for a file without content.
+     */
+    private final byte[][] contents;
+    /**
+     * {@code null} if no file is truncated.
+     */
+    private final boolean[] truncatedFiles;
+
+    private CompactGist(String id, String description, String ownerLogin, long createdAt, boolean isPublic,
+                        boolean truncated, String[] fileNames, String[] rawUrls, byte[][] contents,
+                        boolean[] truncatedFiles) {
+        this.id = id;
+        this.description = description;
+        this.ownerLogin = ownerLogin;
+        this.createdAt = createdAt;
+        this.isPublic = isPublic;
+        this.truncated = truncated;
+        this.fileNames = fileNames;
+        this.rawUrls = rawUrls;
+        this.contents = contents;
+        this.truncatedFiles = truncatedFiles;
+        for (var i = 0; i < rawUrls.length; i++) {
+            rawUrls[i] = revisionOf(rawUrls[i], fileNames[i]);
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getOwnerLogin() {
+        return ownerLogin;
+    }
+
+    /**
+     * @return {@code created_at} in epoch milliseconds, {@link #NO_TIMESTAMP} if absent
+     */
+    public long getCreatedAtMillis() {
+        return createdAt;
+    }
+
+    /**
+     * @return {@code created_at}, {@code null} if absent
+     */
+    public Instant getCreatedAt() {
+        return createdAt == NO_TIMESTAMP ? null : Instant.ofEpochMilli(createdAt);
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public int getFileCount() {
+        return fileNames.length;
+    }
+
+    public List<String> getFileNames() {
+        return Collections.unmodifiableList(Arrays.asList(fileNames));
+    }
+
+    public String getFileName(int file) {
+        return fileNames[file];
+    }
+
+    /**
+     * @return position of the file, {@code -1} if the gist has no such file
+     */
+    public int indexOf(String fileName) {
+        for (var i = 0; i < fileNames.length; i++) {
+            if (fileNames[i].equals(fileName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getRawUrl(int file) {
+        var stored = rawUrls[file];
+        if (Objects.isNull(stored) || stored.startsWith("http")) {
+            return stored;
+        }
+        return rawUrlHead() + stored + "/" + fileNames[file];
+    }
+
+    public boolean isFileTruncated(int file) {
+        return Objects.nonNull(truncatedFiles) && truncatedFiles[file];
+    }
+
+    public boolean hasContent(int file) {
+        return Objects.nonNull(contents) && Objects.nonNull(contents[file]);
+    }
+
+    /**
+     * Decodes the content on every call; callers that need it repeatedly should keep the string.
+     *
+     * @return content of the file, {@code null} if the response did not include it
+     */
+    public String getContent(int file) {
+        return hasContent(file) ? new String(contents[file], StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * @return content of the named file, {@code null} if there is no such file or it came without content
+     */
+    public String getContent(String fileName) {
+        var file = indexOf(fileName);
+        return file < 0 ? null : getContent(file);
+    }
+
+    private String rawUrlHead() {
+        return RAW_PREFIX + ownerLogin + "/" + id + "/raw/";
+    }
+
+    private String revisionOf(String rawUrl, String fileName) {
+        if (Objects.isNull(rawUrl) || Objects.isNull(ownerLogin) || Objects.isNull(id)) {
+            return rawUrl;
+        }
+        var head = rawUrlHead();
+        var tail = "/" + fileName;
+        if (rawUrl.length() > head.length() + tail.length() && rawUrl.startsWith(head) && rawUrl.endsWith(tail)) {
+            var revision = rawUrl.substring(head.length(), rawUrl.length() - tail.length());
+            // a revision that looked like a URL would be mistaken for a full one
+            return revision.startsWith("http") ? rawUrl : revision;
+        }
+        return rawUrl;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactGist(id=" + id + ", description=" + description + ", owner=" + ownerLogin
+                + ", createdAt=" + getCreatedAt() + ", public=" + isPublic + ", truncated=" + truncated
+                + ", files=" + getFileNames() + ")";
+    }
+
+    /**
+     * Streams a gist object into a {@link CompactGist} without building {@link GistFile} or {@link Owner} objects
+     * or content strings on the way; unknown fields are skipped.
+     */
+    static final class Deserializer extends StdDeserializer<CompactGist> {
+        private static final long serialVersionUID = 1L;
+
+        Deserializer() {
+            super(CompactGist.class);
+        }
+
+        @Override
+        public CompactGist deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartObjectToken()) {
+                return (CompactGist) context.handleUnexpectedToken(CompactGist.class, parser);
+            }
+            String id = null;
+            String description = null;
+            String ownerLogin = null;
+            var createdAt = NO_TIMESTAMP;
+            var isPublic = false;
+            var truncated = false;
+            var files = new FileArrays();
+            for (var name = parser.nextFieldName(); Objects.nonNull(name); name = parser.nextFieldName()) {
+                var token = parser.nextToken();
+                switch (name) {
+                    case "id":
+                        id = parser.getValueAsString();
+                        break;
+                    case "description":
+                        description = parser.getValueAsString();
+                        break;
+                    case "public":
+                        isPublic = parser.getValueAsBoolean();
+                        break;
+                    case "truncated":
+                        truncated = parser.getValueAsBoolean();
+                        break;
+                    case "created_at":
+                        createdAt = token == JsonToken.VALUE_NULL
+                                ? NO_TIMESTAMP
+                                : Instant.parse(parser.getText()).toEpochMilli();
+                        break;
+                    case "owner":
+                        ownerLogin = readLogin(parser);
+                        break;
+                    case "files":
+                        files.read(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return new CompactGist(id, description, ownerLogin, createdAt, isPublic, truncated,
+                    files.names.toArray(NO_STRINGS), files.rawUrls.toArray(NO_STRINGS), files.contents(),
+                    files.truncated());
+        }
+
+        private static String readLogin(JsonParser parser) throws IOException {
+            if (!parser.isExpectedStartObjectToken()) {
+                parser.skipChildren();
+                return null;
+            }
+            String login = null;
+            for (var name = parser.nextFieldName(); Objects.nonNull(name); name = parser.nextFieldName()) {
+                parser.nextToken();
+                if ("login".equals(name)) {
+                    login = NAMES.intern(parser.getValueAsString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return login;
+        }
+    }
+
+    /**
+     * Files of one gist while it is being read.
+     */
+    private static final class FileArrays {
+        private final List<String> names = new ArrayList<>(2);
+        private final List<String> rawUrls = new ArrayList<>(2);
+        private final List<byte[]> contents = new ArrayList<>(2);
+        private final List<Boolean> truncated = new ArrayList<>(2);
+
+        void read(JsonParser parser) throws IOException {
+            if (!parser.isExpectedStartObjectToken()) {
+                parser.skipChildren();
+                return;
+            }
+            for (var key = parser.nextFieldName(); Objects.nonNull(key); key = parser.nextFieldName()) {
+                parser.nextToken();
+                if (!parser.isExpectedStartObjectToken()) {
+                    parser.skipChildren();
+                    continue;
+                }
+                var fileName = key;
+                String rawUrl = null;
+                byte[] content = null;
+                var fileTruncated = false;
+                for (var name = parser.nextFieldName(); Objects.nonNull(name); name = parser.nextFieldName()) {
+                    var token = parser.nextToken();
+                    switch (name) {
+                        case "filename":
+                            fileName = token == JsonToken.VALUE_NULL ? fileName : parser.getText();
+                            break;
+                        case "raw_url":
+                            rawUrl = parser.getValueAsString();
+                            break;
+                        case "truncated":
+                            fileTruncated = parser.getValueAsBoolean();
+                            break;
+                        case "content":
+                            content = token == JsonToken.VALUE_STRING ? utf8(parser) : null;
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+                names.add(NAMES.intern(fileName));
+                rawUrls.add(rawUrl);
+                contents.add(content);
+                truncated.add(fileTruncated);
+            }
+        }
+
+        /**
+         * Encodes the current string token straight from the parser's buffer, without an intermediate string.
+         */
+        private static byte[] utf8(JsonParser parser) throws IOException {
+            var encoder = StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            var encoded = encoder.encode(CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(),
+                    parser.getTextLength()));
+            return Arrays.copyOfRange(encoded.array(), encoded.position(), encoded.limit());
+        }
+
+        byte[][] contents() {
+            return contents.stream().allMatch(Objects::isNull) ? null : contents.toArray(new byte[0][]);
+        }
+
+        boolean[] truncated() {
+            if (!truncated.contains(true)) {
+                return null;
+            }
+            var flags = new boolean[truncated.size()];
+            for (var i = 0; i < flags.length; i++) {
+                flags[i] = truncated.get(i);
+            }
+            return flags;
+        }
+    }
+}
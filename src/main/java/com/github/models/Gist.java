@@ -17,6 +17,8 @@ public class Gist {
     private boolean isPublic;
     @JsonProperty("created_at")
     private String createdAt;
+    @JsonProperty("updated_at")
+    private String updatedAt;
     private String description;
     private Owner owner;
     private boolean truncated;
@@ -0,0 +1,224 @@
+package com.github.models;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON codec for the gist models. Readers and writers are built once and shared, so Jackson's
+ * (de)serializer caches stay warm across requests; all of them are immutable and thread-safe.
+ */
+public final class GistCodec {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private static final ObjectReader GIST_READER = MAPPER.readerFor(Gist.class);
+    private static final ObjectReader GIST_LIST_READER = MAPPER.readerFor(new TypeReference<List<Gist>>() {
+    });
+    private static final ObjectReader COMPACT_GIST_READER = MAPPER.readerFor(CompactGist.class);
+    private static final ObjectReader COMPACT_GIST_LIST_READER = MAPPER.readerFor(
+            new TypeReference<List<CompactGist>>() {
+            });
+    private static final ObjectReader GIST_FILE_READER = MAPPER.readerFor(GistFile.class);
+    private static final ObjectReader OWNER_READER = MAPPER.readerFor(Owner.class);
+    private static final ObjectWriter GIST_WRITER = MAPPER.writerFor(Gist.class);
+    private static final ObjectWriter GIST_LIST_WRITER = MAPPER.writerFor(new TypeReference<List<Gist>>() {
+    });
+    private static final ObjectWriter GIST_FILE_WRITER = MAPPER.writerFor(GistFile.class);
+    private static final ObjectWriter OWNER_WRITER = MAPPER.writerFor(Owner.class);
+
+    private GistCodec() {
+    }
+
+    /**
+     * @return factory bound to the shared mapper, so its parsers can {@code readValueAs} model classes
+     */
+    public static JsonFactory jsonFactory() {
+        return MAPPER.getFactory();
+    }
+
+    public static Gist readGist(String json) throws IOException {
+        return GIST_READER.readValue(json);
+    }
+
+    public static Gist readGist(byte[] json) throws IOException {
+        return GIST_READER.readValue(json);
+    }
+
+    public static Gist readGist(InputStream json) throws IOException {
+        return GIST_READER.readValue(json);
+    }
+
+    public static Gist readGist(JsonParser parser) throws IOException {
+        return GIST_READER.readValue(parser);
+    }
+
+    public static List<Gist> readGists(String json) throws IOException {
+        return GIST_LIST_READER.readValue(json);
+    }
+
+    public static List<Gist> readGists(byte[] json) throws IOException {
+        return GIST_LIST_READER.readValue(json);
+    }
+
+    public static List<Gist> readGists(InputStream json) throws IOException {
+        return GIST_LIST_READER.readValue(json);
+    }
+
+    public static List<Gist> readGists(JsonParser parser) throws IOException {
+        return GIST_LIST_READER.readValue(parser);
+    }
+
+    /**
+     * Decodes only the projected fields of the gist.
+     */
+    public static Gist readGist(JsonParser parser, GistProjection projection) throws IOException {
+        return GIST_READER.readValue(projection.filter(parser));
+    }
+
+    public static Gist readGist(byte[] json, GistProjection projection) throws IOException {
+        try (var parser = MAPPER.createParser(json)) {
+            return readGist(parser, projection);
+        }
+    }
+
+    /**
+     * Decodes only the projected fields of every gist of a listing.
+     */
+    public static List<Gist> readGists(JsonParser parser, GistProjection projection) throws IOException {
+        return GIST_LIST_READER.readValue(projection.filter(parser));
+    }
+
+    public static List<Gist> readGists(byte[] json, GistProjection projection) throws IOException {
+        try (var parser = MAPPER.createParser(json)) {
+            return readGists(parser, projection);
+        }
+    }
+
+    public static List<Gist> readGists(String json, GistProjection projection) throws IOException {
+        try (var parser = MAPPER.createParser(json)) {
+            return readGists(parser, projection);
+        }
+    }
+
+    /**
+     * Reads the ids of a listing straight from the tokens, without creating gists.
+     */
+    public static List<String> readGistIds(JsonParser parser) throws IOException {
+        var ids = new ArrayList<String>();
+        expectArray(parser);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String id = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var name = parser.getCurrentName();
+                var value = parser.nextToken();
+                if ("id".equals(name) && value == JsonToken.VALUE_STRING) {
+                    id = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    public static List<String> readGistIds(byte[] json) throws IOException {
+        try (var parser = MAPPER.createParser(json)) {
+            return readGistIds(parser);
+        }
+    }
+
+    /**
+     * Counts the gists of a listing, skipping over each of them.
+     */
+    public static int countGists(JsonParser parser) throws IOException {
+        var count = 0;
+        expectArray(parser);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            count++;
+        }
+        return count;
+    }
+
+    public static int countGists(String json) throws IOException {
+        try (var parser = MAPPER.createParser(json)) {
+            return countGists(parser);
+        }
+    }
+
+    private static void expectArray(JsonParser parser) throws IOException {
+        var token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+        if (token != JsonToken.START_ARRAY) {
+            throw MismatchedInputException.from(parser, List.class, "Expected a gist listing, got " + token);
+        }
+    }
+
+    public static CompactGist readCompactGist(byte[] json) throws IOException {
+        return COMPACT_GIST_READER.readValue(json);
+    }
+
+    public static CompactGist readCompactGist(InputStream json) throws IOException {
+        return COMPACT_GIST_READER.readValue(json);
+    }
+
+    public static List<CompactGist> readCompactGists(byte[] json) throws IOException {
+        return COMPACT_GIST_LIST_READER.readValue(json);
+    }
+
+    public static List<CompactGist> readCompactGists(InputStream json) throws IOException {
+        return COMPACT_GIST_LIST_READER.readValue(json);
+    }
+
+    public static List<CompactGist> readCompactGists(JsonParser parser) throws IOException {
+        return COMPACT_GIST_LIST_READER.readValue(parser);
+    }
+
+    public static GistFile readGistFile(byte[] json) throws IOException {
+        return GIST_FILE_READER.readValue(json);
+    }
+
+    public static GistFile readGistFile(InputStream json) throws IOException {
+        return GIST_FILE_READER.readValue(json);
+    }
+
+    public static Owner readOwner(byte[] json) throws IOException {
+        return OWNER_READER.readValue(json);
+    }
+
+    public static Owner readOwner(InputStream json) throws IOException {
+        return OWNER_READER.readValue(json);
+    }
+
+    public static byte[] writeGist(Gist gist) throws IOException {
+        return GIST_WRITER.writeValueAsBytes(gist);
+    }
+
+    public static void writeGist(OutputStream out, Gist gist) throws IOException {
+        GIST_WRITER.writeValue(out, gist);
+    }
+
+    public static void writeGists(OutputStream out, List<Gist> gists) throws IOException {
+        GIST_LIST_WRITER.writeValue(out, gists);
+    }
+
+    public static byte[] writeGistFile(GistFile file) throws IOException {
+        return GIST_FILE_WRITER.writeValueAsBytes(file);
+    }
+
+    public static byte[] writeOwner(Owner owner) throws IOException {
+        return OWNER_WRITER.writeValueAsBytes(owner);
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.models;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fields of a gist to decode. The parser skips every other subtree with {@code skipChildren}, so skipped
+ * strings (file contents, the many URLs, owner details) are never decoded, and the models keep {@code null} or
+ * defaults for them.
+ * <p>
+ * Paths are separated by {@code /} and {@code *} matches any property name, e.g. {@code files/*&#47;filename}; a
+ * path that ends at an object selects all of it. The same projection applies to a single gist and to each gist of a
+ * listing.
+ */
+public final class GistProjection {
+    /**
+     * Only {@code id}.
+     */
+    public static final GistProjection IDS = of("id");
+    /**
+     * Everything but file contents and the URLs of the gist.
+     */
+    public static final GistProjection METADATA = of("id", "description", "public", "created_at", "updated_at",
+            "truncated", "owner", "files/*/filename", "files/*/raw_url", "files/*/truncated");
+    /**
+     * No filtering.
+     */
+    public static final GistProjection FULL = new GistProjection(null);
+    private final Node root;
+
+    private GistProjection(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * The order of {@code paths} does not matter: a path inside an already selected object adds nothing, and a
+     * property matched both by name and by {@code *} gets the fields of both.
+     */
+    public static GistProjection of(String... paths) {
+        var root = new Node();
+        for (var path : paths) {
+            root.add(path.split("/"), 0);
+        }
+        root.mergeWildcard();
+        return new GistProjection(root);
+    }
+
+    /**
+     * @return {@code parser} restricted to the projected fields
+     */
+    JsonParser filter(JsonParser parser) {
+        if (Objects.isNull(root)) {
+            return parser;
+        }
+        return new FilteringParserDelegate(parser, root, TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true);
+    }
+
+    /**
+     * Object level of the path trie. Arrays pass through to their elements, so the root serves a listing as well
+     * as a single gist; objects without projected fields stay as empty objects, so map keys such as file names are
+     * kept.
+     */
+    private static final class Node extends TokenFilter {
+        private static final String ANY = "*";
+        private final Map<String, TokenFilter> children = new HashMap<>();
+
+        private void add(String[] names, int depth) {
+            var name = names[depth];
+            var child = children.get(name);
+            if (child == TokenFilter.INCLUDE_ALL) {
+                return;
+            }
+            if (depth == names.length - 1) {
+                children.put(name, TokenFilter.INCLUDE_ALL);
+                return;
+            }
+            if (Objects.isNull(child)) {
+                child = new Node();
+                children.put(name, child);
+            }
+            ((Node) child).add(names, depth + 1);
+        }
+
+        /**
+         * Folds the {@code *} child into every named sibling, so looking up a name finds the fields of both.
+         */
+        private void mergeWildcard() {
+            var any = children.get(ANY);
+            for (var entry : children.entrySet()) {
+                if (Objects.nonNull(any) && !entry.getKey().equals(ANY)) {
+                    entry.setValue(merge(entry.getValue(), any));
+                }
+                if (entry.getValue() instanceof Node) {
+                    ((Node) entry.getValue()).mergeWildcard();
+                }
+            }
+        }
+
+        private static TokenFilter merge(TokenFilter left, TokenFilter right) {
+            if (left == TokenFilter.INCLUDE_ALL || right == TokenFilter.INCLUDE_ALL) {
+                return TokenFilter.INCLUDE_ALL;
+            }
+            var merged = new Node();
+            for (var from : List.of((Node) left, (Node) right)) {
+                from.children.forEach((name, child) -> merged.children.merge(name, child, Node::merge));
+            }
+            return merged;
+        }
+
+        @Override
+        public TokenFilter includeProperty(String name) {
+            var child = children.get(name);
+            return Objects.nonNull(child) ? child : children.get(ANY);
+        }
+
+        @Override
+        public TokenFilter includeElement(int index) {
+            return this;
+        }
+
+        @Override
+        public boolean includeEmptyObject(boolean contentsFiltered) {
+            return true;
+        }
+
+        @Override
+        protected boolean _includeScalar() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.models;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Body of a create or update request. It is written with a Jackson generator straight into the target stream and
+ * file contents are copied through a small buffer, so a body never exists as one string, however large the files.
+ * <p>
+ * On update, files that are not mentioned are left as they are, a {@link Builder#deleteFile(String) deleted}
+ * file is sent as {@code null}.
+ */
+public final class GistRequest {
+    private final String description;
+    private final Boolean isPublic;
+    private final Map<String, FileChange> files;
+
+    private GistRequest(Builder builder) {
+        this.description = builder.description;
+        this.isPublic = builder.isPublic;
+        this.files = Collections.unmodifiableMap(new LinkedHashMap<>(builder.files));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return {@code false} if a file is streamed from an {@link InputStream}, which can only be written once
+     */
+    public boolean isRepeatable() {
+        return files.values().stream().allMatch(file -> Objects.isNull(file) || file.content.repeatable);
+    }
+
+    /**
+     * Writes the JSON body as UTF-8; the stream is flushed but left open.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        try (var generator = GistCodec.jsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            if (Objects.nonNull(description)) {
+                generator.writeStringField("description", description);
+            }
+            if (Objects.nonNull(isPublic)) {
+                generator.writeBooleanField("public", isPublic);
+            }
+            generator.writeObjectFieldStart("files");
+            for (var file : files.entrySet()) {
+                generator.writeFieldName(file.getKey());
+                if (Objects.isNull(file.getValue())) {
+                    generator.writeNull();
+                } else {
+                    file.getValue().writeTo(generator);
+                }
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GistRequest(description=" + description + ", isPublic=" + isPublic + ", files=" + files.keySet() + ")";
+    }
+
+    private static final class FileChange {
+        private final String newName;
+        private final Content content;
+
+        FileChange(String newName, Content content) {
+            this.newName = newName;
+            this.content = content;
+        }
+
+        void writeTo(JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            if (Objects.nonNull(newName)) {
+                generator.writeStringField("filename", newName);
+            }
+            if (Objects.nonNull(content.source)) {
+                generator.writeFieldName("content");
+                try (var reader = content.open()) {
+                    // -1 streams the reader to its end, escaping chunk by chunk
+                    generator.writeString(reader, -1);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static final class Content {
+        private static final Content NONE = new Content(null, true);
+        private final ReaderSource source;
+        private final boolean repeatable;
+        private final AtomicBoolean opened = new AtomicBoolean();
+
+        Content(ReaderSource source, boolean repeatable) {
+            this.source = source;
+            this.repeatable = repeatable;
+        }
+
+        Reader open() throws IOException {
+            if (!repeatable && opened.getAndSet(true)) {
+                throw new IllegalStateException("File content stream has already been written");
+            }
+            return source.open();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ReaderSource {
+        Reader open() throws IOException;
+    }
+
+    public static final class Builder {
+        private final Map<String, FileChange> files = new LinkedHashMap<>();
+        private String description;
+        private Boolean isPublic;
+
+        private Builder() {
+        }
+
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        /**
+         * Only honoured on creation; left out of the body unless set.
+         */
+        public Builder isPublic(boolean isPublic) {
+            this.isPublic = isPublic;
+            return this;
+        }
+
+        public Builder file(String name, String content) {
+            return put(name, null, new Content(() -> new StringReader(content), true));
+        }
+
+        /**
+         * Streams the UTF-8 content of {@code path} when the body is written.
+         */
+        public Builder file(String name, Path content) {
+            return put(name, null, new Content(() -> Files.newBufferedReader(content, StandardCharsets.UTF_8), true));
+        }
+
+        /**
+         * Streams UTF-8 content from {@code content} when the body is written and closes it afterwards; the request
+         * can then only be sent once.
+         */
+        public Builder file(String name, InputStream content) {
+            return put(name, null, new Content(() -> new InputStreamReader(content, StandardCharsets.UTF_8), false));
+        }
+
+        public Builder renameFile(String name, String newName) {
+            return put(name, newName, Content.NONE);
+        }
+
+        public Builder renameFile(String name, String newName, String content) {
+            return put(name, newName, new Content(() -> new StringReader(content), true));
+        }
+
+        public Builder deleteFile(String name) {
+            files.put(Objects.requireNonNull(name, "name"), null);
+            return this;
+        }
+
+        public GistRequest build() {
+            return new GistRequest(this);
+        }
+
+        private Builder put(String name, String newName, Content content) {
+            files.put(Objects.requireNonNull(name, "name"), new FileChange(newName, content));
+            return this;
+        }
+    }
+}
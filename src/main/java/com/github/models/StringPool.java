@@ -0,0 +1,39 @@
+package com.github.models;
+
+import java.util.Objects;
+
+/**
+ * Deduplicates frequently repeated strings such as owner logins and common file names. It is a fixed-size,
+ * direct-mapped cache rather than an intern table: a string replaces whatever shares its slot, so memory stays
+ * bounded however many distinct strings pass through, while the recurring ones keep hitting their slot.
+ * Races between threads only cost a missed deduplication; strings are immutable, so publication is safe.
+ */
+final class StringPool {
+    private final String[] slots;
+    private final int mask;
+
+    /**
+     * @param size number of slots, a power of two
+     */
+    StringPool(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Size must be a power of two: " + size);
+        }
+        this.slots = new String[size];
+        this.mask = size - 1;
+    }
+
+    String intern(String value) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        var hash = value.hashCode();
+        var slot = (hash ^ (hash >>> 16)) & mask;
+        var cached = slots[slot];
+        if (value.equals(cached)) {
+            return cached;
+        }
+        slots[slot] = value;
+        return value;
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.rest;
+
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.rest.ClientBase.HttpResponseReader;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.classic.methods.HttpDelete;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.io.CloseMode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking counterpart of {@link ClientBase}. Requests are built the same way (classic
+ * {@code HttpGet}/{@code HttpPost}/... with headers and entity) and executed on the httpclient5
+ * async client, so a few I/O threads can keep many gist requests in flight.
+ * <p>
+ * Cancelling a returned future, or letting it time out, aborts the underlying exchange.
+ */
+public class AsyncClientBase implements Closeable {
+    private final CloseableHttpAsyncClient client;
+    private final Duration timeout;
+    private final long maxResponseBodySize;
+
+    public AsyncClientBase() {
+        this(ClientConfig.defaults(), null);
+    }
+
+    /**
+     * @param timeout default time limit for every request, {@code null} for none
+     */
+    public AsyncClientBase(Duration timeout) {
+        this(ClientConfig.defaults(), timeout);
+    }
+
+    /**
+     * @param config pool size, timeouts and response size limit; compression, caching, rate limiting and
+     *               resilience settings only apply to {@link ClientBase}
+     * @param timeout default time limit for every request, {@code null} for none
+     */
+    public AsyncClientBase(ClientConfig config, Duration timeout) {
+        this.client = config.newAsyncClientBuilder(config.newAsyncConnectionManager()).build();
+        this.timeout = timeout;
+        this.maxResponseBodySize = config.getMaxResponseBodySize();
+        client.start();
+    }
+
+    public CompletableFuture<HttpResponseReader> executeRequestWithEntity(ClassicHttpRequest httpRequest) {
+        ClientBase.logRequest(httpRequest);
+        return execute(httpRequest);
+    }
+
+    public CompletableFuture<Integer> delete(HttpDelete httpDelete) {
+        ClientBase.logRequest(httpDelete);
+        return execute(httpDelete).thenApply(HttpResponseReader::getCode);
+    }
+
+    public CompletableFuture<HttpResponseReader> get(HttpGet httpGet) {
+        ClientBase.logRequest(httpGet);
+        return execute(httpGet);
+    }
+
+    /**
+     * Requests a single gist and decodes it straight from the response body. A status other than {@code 200}
+     * fails the future with an {@link IOException}.
+     */
+    public CompletableFuture<Gist> getGist(HttpGet httpGet) {
+        return get(httpGet).thenApply(response -> {
+            if (response.getCode() != 200) {
+                throw new CompletionException(unexpectedStatus(httpGet, response));
+            }
+            try (var parser = response.getParser()) {
+                return GistCodec.readGist(parser);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private static IOException unexpectedStatus(HttpGet request, HttpResponseReader response) {
+        try {
+            return new IOException("Reading " + request.getRequestUri() + " failed with status " + response.getCode()
+                    + ": " + response.getPayload());
+        } catch (IOException | ParseException e) {
+            return new IOException("Reading " + request.getRequestUri() + " failed with status " + response.getCode(), e);
+        }
+    }
+
+    private CompletableFuture<HttpResponseReader> execute(ClassicHttpRequest request) {
+        SimpleHttpRequest simpleRequest;
+        try {
+            simpleRequest = toSimpleRequest(request);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        var result = new CompletableFuture<HttpResponseReader>();
+        var exchange = client.execute(simpleRequest, new FutureCallback<SimpleHttpResponse>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                result.complete(new HttpResponseReader(response, maxResponseBodySize));
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                result.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        // covers caller cancellation as well as orTimeout, which completes the same future
+        result.whenComplete((response, error) -> {
+            if (Objects.nonNull(error)) {
+                exchange.cancel(true);
+            }
+        });
+        if (Objects.nonNull(timeout)) {
+            result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    static SimpleHttpRequest toSimpleRequest(ClassicHttpRequest request) throws IOException {
+        SimpleHttpRequest simpleRequest;
+        try {
+            simpleRequest = SimpleHttpRequest.create(request.getMethod(), request.getUri());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid request URI: " + request, e);
+        }
+        simpleRequest.setHeaders(request.getHeaders());
+        var entity = request.getEntity();
+        if (Objects.nonNull(entity)) {
+            var contentType = Objects.isNull(entity.getContentType()) ? null : ContentType.parse(entity.getContentType());
+            // writeTo works for every entity, getContent() does not for compressing wrappers
+            var body = new ByteArrayOutputStream();
+            entity.writeTo(body);
+            simpleRequest.setBody(body.toByteArray(), contentType);
+            if (Objects.nonNull(entity.getContentEncoding())) {
+                simpleRequest.setHeader(HttpHeaders.CONTENT_ENCODING, entity.getContentEncoding());
+            }
+        }
+        return simpleRequest;
+    }
+
+    @Override
+    public void close() {
+        client.close(CloseMode.GRACEFUL);
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.rest;
+
+import java.io.IOException;
+
+/**
+ * Response body over the configured size limit, see {@link ClientConfig#getMaxResponseBodySize()} and
+ * {@link RawDownloadOptions#getMaxSize()}. Unlike a broken transfer, sending the request again does not help.
+ */
+public class BodyTooLargeException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public BodyTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.rest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Deletes many gists of one owner concurrently, at most {@code parallelism} requests at a time, then verifies
+ * the result with a single listing pass (repeated by a {@link ConsistencyWaiter} until the listing converges)
+ * instead of polling every id separately. Failures are reported per id rather than aborting the whole batch.
+ */
+public class BulkDeleter {
+    private final ClientBase client;
+    private final GistRequests requests;
+    private final String owner;
+    private final int parallelism;
+    private final Duration verifyTimeout;
+    private final Executor executor;
+    private final ConsistencyWaiter waiter;
+
+    public BulkDeleter(ClientBase client, GistRequests requests, String owner, int parallelism) {
+        this(client, requests, owner, parallelism, Duration.ofSeconds(10), ClientExecutors.shared());
+    }
+
+    public BulkDeleter(ClientBase client, GistRequests requests, String owner, int parallelism,
+                       Duration verifyTimeout, Executor executor) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.client = client;
+        this.requests = requests;
+        this.owner = owner;
+        this.parallelism = parallelism;
+        this.verifyTimeout = verifyTimeout;
+        this.executor = executor;
+        this.waiter = new ConsistencyWaiter(client, requests, owner,
+                ConsistencyOptions.builder().timeout(verifyTimeout).build());
+    }
+
+    public static class Result {
+        private final List<String> deleted;
+        private final Map<String, String> failures;
+
+        Result(List<String> deleted, Map<String, String> failures) {
+            this.deleted = Collections.unmodifiableList(deleted);
+            this.failures = Collections.unmodifiableMap(failures);
+        }
+
+        /**
+         * @return ids that were deleted and no longer listed
+         */
+        public List<String> getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * @return failure reason by gist id
+         */
+        public Map<String, String> getFailures() {
+            return failures;
+        }
+
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Result(deleted=" + deleted.size() + ", failures=" + failures + ")";
+        }
+    }
+
+    /**
+     * Safe to call concurrently; concurrent calls share their verification listings.
+     */
+    public Result deleteAll(Collection<String> gistIds) {
+        var ids = new LinkedHashSet<>(gistIds);
+        var failures = new HashMap<String, String>();
+        new GistBatch(client, requests, parallelism, executor).deleteAll(ids).getFailures()
+                .forEach(item -> failures.put(item.getId(), item.getError()));
+
+        var pending = new LinkedHashSet<>(ids);
+        pending.removeAll(failures.keySet());
+        var stillListed = waiter.awaitUnlisted(pending).getPending();
+        stillListed.forEach(id -> failures.put(id, "still listed after " + verifyTimeout.toMillis() + " ms"));
+        pending.removeAll(stillListed);
+
+        var orderedFailures = new LinkedHashMap<String, String>();
+        ids.stream().filter(failures::containsKey).forEach(id -> orderedFailures.put(id, failures.get(id)));
+        return new Result(new ArrayList<>(pending), orderedFailures);
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.rest;
+
+import java.io.IOException;
+
+/**
+ * Call rejected without being sent because its endpoint failed repeatedly, see {@link ResilienceConfig}.
+ */
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String endpoint) {
+        super("Circuit of " + endpoint + " is open after repeated failures");
+    }
+}
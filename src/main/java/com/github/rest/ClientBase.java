@@ -1,63 +1,797 @@
 package com.github.rest;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.github.models.GistCodec;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.entity.DeflateInputStream;
+import org.apache.hc.client5.http.entity.GzipCompressingEntity;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Method;
 import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.ProtocolVersion;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.client5.http.classic.methods.*;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.util.Arrays;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
 
 import java.util.logging.Logger;
 
-public class ClientBase {
+public class ClientBase implements Closeable {
     private static final Logger logger = Logger.getLogger(ClientBase.class.getName());
-    private final CloseableHttpClient client = HttpClients.createDefault();
+    private static final int RAW_CHUNK_SIZE = 64 * 1024;
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final long maxResponseBodySize;
+    private final boolean contentCompression;
+    private final long requestCompressionThreshold;
+    private final ResponseCache responseCache;
+    private final RateLimitScheduler scheduler;
+    private final ResiliencePolicy resilience;
+    private final ClientMetrics metrics = new ClientMetrics();
+    private final H2Transport h2;
 
-    public static class HttpResponseReader {
-        private final CloseableHttpResponse response;
+    public ClientBase() {
+        this(ClientConfig.defaults());
+    }
+
+    public ClientBase(ClientConfig config) {
+        // HTTP/2 mode runs on the async pool of its transport
+        this(config, Objects.isNull(config.getHttpVersionPolicy()) ? config.newConnectionManager() : null, false);
+    }
+
+    /**
+     * Creates a client on top of an existing pool, e.g. one built by {@link ClientConfig#newConnectionManager()}
+     * and shared between several clients. Closing this client leaves the pool open. In HTTP/2 mode the pool is not
+     * used.
+     */
+    public ClientBase(ClientConfig config, PoolingHttpClientConnectionManager connectionManager) {
+        this(config, connectionManager, true);
+    }
+
+    private ClientBase(ClientConfig config, PoolingHttpClientConnectionManager connectionManager, boolean shared) {
+        this.connectionManager = connectionManager;
+        this.maxResponseBodySize = config.getMaxResponseBodySize();
+        this.contentCompression = config.isContentCompression();
+        this.requestCompressionThreshold = config.getRequestCompressionThreshold();
+        this.responseCache = config.getResponseCacheSize() > 0 ? new ResponseCache(config.getResponseCacheSize()) : null;
+        this.scheduler = Objects.isNull(config.getRateLimit()) ? null : new RateLimitScheduler(config.getRateLimit());
+        this.resilience = Objects.isNull(config.getResilience()) ? null : new ResiliencePolicy(config.getResilience());
+        this.h2 = Objects.isNull(config.getHttpVersionPolicy()) ? null : new H2Transport(config);
+        this.client = Objects.isNull(h2) ? newClassicClient(config, connectionManager, shared) : null;
+    }
+
+    private CloseableHttpClient newClassicClient(ClientConfig config,
+                                                 PoolingHttpClientConnectionManager connectionManager, boolean shared) {
+        var builder = HttpClients.custom()
+                .setConnectionManager(new MeteredConnectionManager(connectionManager, metrics))
+                .setConnectionManagerShared(shared)
+                // decoding happens in HttpResponseReader, where compressed and decoded sizes are counted
+                .disableContentCompression()
+                .setDefaultRequestConfig(config.toRequestConfig())
+                .evictIdleConnections(ClientConfig.toTimeValue(config.getIdleEviction()));
+        if (Objects.nonNull(resilience)) {
+            // the resilience policy owns retries, within its budget
+            builder.disableAutomaticRetries();
+        } else if (Objects.nonNull(scheduler)) {
+            // 429/503 must reach the scheduler instead of being retried behind its back
+            builder.setRetryStrategy(new DefaultHttpRequestRetryStrategy() {
+                @Override
+                public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+                    return false;
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    /**
+     * Response of a single exchange. The body can be read once, either buffered with {@link #getPayload()} or
+     * streamed with {@link #getStream()}/{@link #getParser()}; the pooled connection is released as soon as the
+     * body is fully consumed or the reader (or its stream) is closed.
+     */
+    public static class HttpResponseReader implements Closeable {
+        private static final long DRAIN_LIMIT = 64 * 1024;
+        private static final int DECODE_BUFFER_SIZE = 8 * 1024;
+        private final ClassicHttpResponse response;
+        private final HttpResponse head;
+        private final int code;
+        private final long maxBodySize;
+        private final byte[] bufferedBody;
+        private final String contentType;
+        private final String bufferedEncoding;
+        private final boolean fromCache;
+        private final ClientMetrics metrics;
+        private final long receivedAt;
         private String payload;
+        private boolean bodyTaken;
+        private CountingInputStream wireStream;
+        private BoundedInputStream bodyStream;
 
-        HttpResponseReader(CloseableHttpResponse response) {
+        HttpResponseReader(ClassicHttpResponse response, long maxBodySize) {
+            this(response, maxBodySize, null);
+        }
+
+        HttpResponseReader(ClassicHttpResponse response, long maxBodySize, ClientMetrics metrics) {
             this.response = response;
+            this.head = response;
+            this.code = response.getCode();
+            this.maxBodySize = maxBodySize;
+            this.bufferedBody = null;
+            var entity = response.getEntity();
+            this.contentType = Objects.isNull(entity) ? null : entity.getContentType();
+            this.bufferedEncoding = null;
+            this.fromCache = false;
+            this.metrics = metrics;
+            this.receivedAt = System.nanoTime();
+        }
+
+        HttpResponseReader(SimpleHttpResponse response, long maxBodySize) {
+            this(response, Objects.requireNonNullElse(response.getBodyBytes(), new byte[0]),
+                    Objects.isNull(response.getContentType()) ? null : response.getContentType().toString(),
+                    headerValue(response, HttpHeaders.CONTENT_ENCODING), maxBodySize, false);
+        }
+
+        HttpResponseReader(HttpResponse head, byte[] body, String contentType, long maxBodySize, boolean fromCache) {
+            this(head, body, contentType, null, maxBodySize, fromCache);
+        }
+
+        private HttpResponseReader(HttpResponse head, byte[] body, String contentType, String contentEncoding,
+                                   long maxBodySize, boolean fromCache) {
+            this.response = null;
+            this.head = head;
+            this.code = head.getCode();
+            this.maxBodySize = maxBodySize;
+            this.bufferedBody = body;
+            this.contentType = contentType;
+            this.bufferedEncoding = contentEncoding;
+            this.fromCache = fromCache;
+            this.metrics = null;
+            this.receivedAt = 0;
+        }
+
+        public int getCode() {
+            return code;
         }
 
+        /**
+         * @return {@code true} if the body was served from the response cache after a {@code 304 Not Modified}
+         */
+        public boolean isFromCache() {
+            return fromCache;
+        }
+
+        /**
+         * @return protocol the response arrived with, e.g. {@code HTTP/2} in HTTP/2 mode unless the server fell back
+         */
+        public ProtocolVersion getVersion() {
+            return head.getVersion();
+        }
+
+        /**
+         * @return value of the first response header with this name, {@code null} if there is none
+         */
+        public String getHeader(String name) {
+            return headerValue(head, name);
+        }
+
+        private static String headerValue(HttpResponse head, String name) {
+            var header = head.getFirstHeader(name);
+            return Objects.isNull(header) ? null : header.getValue();
+        }
+
+        /**
+         * Reads the whole body into a string and releases the connection. Repeated calls return the same string.
+         */
         public String getPayload() throws IOException, ParseException {
             if (Objects.isNull(payload)) {
-                payload = EntityUtils.toString(response.getEntity());
+                try (var stream = getStream()) {
+                    payload = new String(stream.readAllBytes(), getCharset());
+                }
             }
             return payload;
         }
+
+        /**
+         * Exposes the body without buffering it. The stream fails with a {@link BodyTooLargeException} once more than
+         * {@link ClientConfig#getMaxResponseBodySize()} bytes are read; closing it releases the connection.
+         */
+        public InputStream getStream() throws IOException {
+            if (bodyTaken) {
+                throw new IllegalStateException("Response body has already been consumed");
+            }
+            bodyTaken = true;
+            if (Objects.nonNull(bufferedBody)) {
+                checkBodySize(bufferedBody.length);
+                // nothing to release, the exchange is already complete
+                Closeable released = () -> {
+                };
+                var stream = new BoundedInputStream(decode(new ByteArrayInputStream(bufferedBody), bufferedEncoding),
+                        maxBodySize, released);
+                bodyStream = stream;
+                return stream;
+            }
+            var entity = response.getEntity();
+            if (Objects.isNull(entity)) {
+                response.close();
+                return InputStream.nullInputStream();
+            }
+            try {
+                checkBodySize(entity.getContentLength());
+                var wire = new CountingInputStream(entity.getContent());
+                var stream = new BoundedInputStream(decode(wire, entity.getContentEncoding()), maxBodySize, response);
+                wireStream = wire;
+                bodyStream = stream;
+                if (Objects.nonNull(metrics)) {
+                    stream.onClose = bytes -> metrics.recordBodyRead(wire.count, bytes, System.nanoTime() - receivedAt);
+                }
+                return stream;
+            } catch (IOException | RuntimeException e) {
+                response.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Streams the body through a Jackson parser bound to {@link GistCodec}; closing the parser releases the
+         * connection.
+         */
+        public JsonParser getParser() throws IOException {
+            return GistCodec.jsonFactory().createParser(getStream());
+        }
+
+        private Charset getCharset() {
+            if (Objects.isNull(contentType)) {
+                return StandardCharsets.UTF_8;
+            }
+            var charset = ContentType.parseLenient(contentType).getCharset();
+            return Objects.isNull(charset) ? StandardCharsets.UTF_8 : charset;
+        }
+
+        /**
+         * @return body bytes received so far as sent on the wire, i.e. before decoding; {@code 0} for a body served
+         * from the response cache
+         */
+        public long getWireBytes() {
+            if (Objects.nonNull(wireStream)) {
+                return wireStream.count;
+            }
+            return fromCache || Objects.isNull(bufferedBody) ? 0 : bufferedBody.length;
+        }
+
+        /**
+         * @return body bytes read so far after decoding
+         */
+        public long getBodyBytes() {
+            if (Objects.nonNull(bodyStream)) {
+                return bodyStream.count;
+            }
+            return bodyTaken && Objects.nonNull(bufferedBody) ? bufferedBody.length : 0;
+        }
+
+        private static InputStream decode(InputStream wire, String contentEncoding) throws IOException {
+            if (Objects.isNull(contentEncoding) || "identity".equalsIgnoreCase(contentEncoding)) {
+                return wire;
+            }
+            switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+                case "gzip":
+                case "x-gzip":
+                    return new GZIPInputStream(wire, DECODE_BUFFER_SIZE);
+                case "deflate":
+                    // accepts both zlib-wrapped and raw deflate, servers disagree on which one "deflate" means
+                    return new DeflateInputStream(wire);
+                default:
+                    throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+            }
+        }
+
+        private void checkBodySize(long size) throws IOException {
+            if (size > maxBodySize) {
+                throw new BodyTooLargeException("Response body of " + size + " bytes exceeds the limit of "
+                        + maxBodySize + " bytes");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (Objects.nonNull(response)) {
+                var entity = response.getEntity();
+                // draining a short unread body keeps the connection reusable, a long one is cheaper to drop
+                if (!bodyTaken && Objects.nonNull(entity)
+                        && entity.getContentLength() >= 0 && entity.getContentLength() <= DRAIN_LIMIT) {
+                    EntityUtils.consumeQuietly(entity);
+                }
+                response.close();
+            }
+            bodyTaken = true;
+        }
+    }
+
+    /**
+     * Counts the bytes read from the connection, before any decoding.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            var read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
     }
 
-    private void logRequest(ClassicHttpRequest request) {
-        logger.info("Request: " + request.toString());
-        logger.info("Headers: " + Arrays.toString(request.getHeaders()));
+    /**
+     * Counts the bytes written to the connection, after any request compression.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * Records the request body as sent, i.e. after compression: a gzipped or streamed body has no length up front.
+     * The classic transport writes the entity, the HTTP/2 transport reads it.
+     */
+    private static class CountingEntity extends HttpEntityWrapper {
+        private final ClientMetrics metrics;
+
+        CountingEntity(HttpEntity entity, ClientMetrics metrics) {
+            super(entity);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            var counting = new CountingOutputStream(out);
+            try {
+                super.writeTo(counting);
+            } finally {
+                metrics.recordBytesOut(counting.count);
+            }
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            var counting = new CountingInputStream(super.getContent());
+            return new FilterInputStream(counting) {
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    if (!closed) {
+                        closed = true;
+                        metrics.recordBytesOut(counting.count);
+                    }
+                    super.close();
+                }
+            };
+        }
+    }
+
+    /**
+     * Fails reads past the size limit and closes the owning response together with the stream.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+        private final long limit;
+        private final Closeable owner;
+        private LongConsumer onClose;
+        private long count;
+        private boolean closed;
+
+        BoundedInputStream(InputStream in, long limit, Closeable owner) {
+            super(in);
+            this.limit = limit;
+            this.owner = owner;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            var read = super.read(b, off, len);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) throws IOException {
+            count += read;
+            if (count > limit) {
+                close();
+                throw new BodyTooLargeException("Response body exceeds the limit of " + limit + " bytes");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed && Objects.nonNull(onClose)) {
+                onClose.accept(count);
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                owner.close();
+            }
+        }
+    }
+
+    /**
+     * Logs the request line and headers at {@code FINE}; the message is only built when that level is enabled and
+     * credentials are redacted.
+     */
+    static void logRequest(HttpRequest request) {
+        logger.fine(() -> "Request: " + request + " Headers: " + redactedHeaders(request));
+    }
+
+    static String redactedHeaders(HttpRequest request) {
+        var joiner = new StringJoiner(", ", "[", "]");
+        for (var header : request.getHeaders()) {
+            var sensitive = HttpHeaders.AUTHORIZATION.equalsIgnoreCase(header.getName())
+                    || HttpHeaders.PROXY_AUTHORIZATION.equalsIgnoreCase(header.getName())
+                    || "Cookie".equalsIgnoreCase(header.getName());
+            joiner.add(header.getName() + ": " + (sensitive ? "<redacted>" : header.getValue()));
+        }
+        return joiner.toString();
     }
 
     private HttpResponseReader execute(ClassicHttpRequest request) throws IOException {
-        var response = client.execute(request);
-        return new HttpResponseReader(response);
+        if (contentCompression && !request.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+        }
+        var entity = request.getEntity();
+        if (Objects.nonNull(entity) && !(entity instanceof CountingEntity)) {
+            request.setEntity(new CountingEntity(entity, metrics));
+        }
+        var permit = Objects.isNull(scheduler) ? null : scheduler.acquire(request);
+        var start = System.nanoTime();
+        HttpResponseReader response;
+        try {
+            response = Objects.isNull(h2)
+                    ? new HttpResponseReader(client.execute(request), maxResponseBodySize, metrics)
+                    : new HttpResponseReader(h2.execute(request), maxResponseBodySize, metrics);
+        } catch (IOException | RuntimeException e) {
+            metrics.recordExchange(request.getMethod(), request.getPath(), ClientMetrics.NO_RESPONSE,
+                    System.nanoTime() - start);
+            if (Objects.nonNull(permit)) {
+                scheduler.fail(permit);
+            }
+            throw e;
+        }
+        metrics.recordExchange(request.getMethod(), request.getPath(), response.getCode(), System.nanoTime() - start);
+        if (Objects.nonNull(permit)) {
+            scheduler.complete(permit, response.head);
+        }
+        return response;
+    }
+
+    private void invalidate(ClassicHttpRequest request) {
+        if (Objects.nonNull(responseCache) && !Method.GET.isSame(request.getMethod())) {
+            responseCache.invalidate(request);
+        }
     }
 
     public HttpResponseReader executeRequestWithEntity(ClassicHttpRequest httpRequest) throws IOException {
         logRequest(httpRequest);
+        invalidate(httpRequest);
+        compress(httpRequest);
         return execute(httpRequest);
     }
 
+    /**
+     * Gzips the request body in place when it reaches {@link ClientConfig#getRequestCompressionThreshold()};
+     * a body that already carries an encoding is left alone, so resending the request does not encode twice.
+     */
+    private void compress(ClassicHttpRequest request) {
+        var entity = request.getEntity();
+        if (requestCompressionThreshold <= 0 || Objects.isNull(entity) || Objects.nonNull(entity.getContentEncoding())) {
+            return;
+        }
+        var length = entity.getContentLength();
+        if (length < 0 || length >= requestCompressionThreshold) {
+            request.setEntity(new GzipCompressingEntity(entity));
+        }
+    }
+
+    /**
+     * Under a {@link ClientConfig#getResilience()} policy, a retried DELETE whose earlier attempt did reach the
+     * server answers {@code 404}.
+     */
     public int delete(HttpDelete httpDelete) throws IOException {
         logRequest(httpDelete);
-        var response = client.execute(httpDelete);
-        EntityUtils.consumeQuietly(response.getEntity());
-        return response.getCode();
+        invalidate(httpDelete);
+        try (var response = executeIdempotent(httpDelete)) {
+            return response.getCode();
+        }
     }
 
     public HttpResponseReader get(HttpGet httpGet) throws IOException {
         logRequest(httpGet);
-        return execute(httpGet);
+        if (Objects.isNull(responseCache)) {
+            return executeIdempotent(httpGet);
+        }
+        return conditionalGet(httpGet);
+    }
+
+    /**
+     * Sends a GET or DELETE through the resilience policy when one is configured.
+     */
+    private HttpResponseReader executeIdempotent(ClassicHttpRequest request) throws IOException {
+        return Objects.isNull(resilience) ? execute(request) : resilience.execute(request, this::execute);
+    }
+
+    /**
+     * Revalidates a cached response with {@code If-None-Match}/{@code If-Modified-Since} and serves the cached body
+     * on {@code 304}. The caller's request is left untouched, so it can be reused.
+     */
+    private HttpResponseReader conditionalGet(HttpGet httpGet) throws IOException {
+        var key = ResponseCache.key(httpGet);
+        var cached = responseCache.get(key);
+        var request = httpGet;
+        if (Objects.nonNull(cached)) {
+            request = ResponseCache.copy(httpGet);
+            cached.addValidators(request);
+        }
+        var response = executeIdempotent(request);
+        if (response.getCode() == HttpStatus.SC_NOT_MODIFIED && Objects.nonNull(cached)) {
+            response.close();
+            responseCache.hit();
+            return new HttpResponseReader(cached.getHead(), cached.getBody(), cached.getContentType(),
+                    maxResponseBodySize, true);
+        }
+        responseCache.miss();
+        if (response.getCode() != HttpStatus.SC_OK || !ResponseCache.isCacheable(response.head)) {
+            return response;
+        }
+        byte[] body;
+        try (var stream = response.getStream()) {
+            body = stream.readAllBytes();
+        }
+        var entry = new ResponseCache.Entry(response.head, body, response.contentType);
+        responseCache.put(key, entry);
+        return new HttpResponseReader(entry.getHead(), body, response.contentType, maxResponseBodySize, false);
+    }
+
+    /**
+     * Streams {@code raw_url} content into a file, replacing it, without holding the content on the heap.
+     *
+     * @see #downloadRaw(HttpGet, FileChannel, RawDownloadOptions)
+     */
+    public RawDownload downloadRaw(HttpGet httpGet, Path target, RawDownloadOptions options) throws IOException {
+        try (var channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return downloadRaw(httpGet, channel, options);
+        }
+    }
+
+    /**
+     * Streams {@code raw_url} content into the channel from its current position. A broken transfer is resumed with
+     * a {@code Range} request; the content is verified against {@link RawDownloadOptions#getExpectedSha256()} when
+     * given. The channel is left open.
+     */
+    public RawDownload downloadRaw(HttpGet httpGet, FileChannel target, RawDownloadOptions options)
+            throws IOException {
+        return downloadRaw(httpGet, RawDownload.Sink.of(target), options);
+    }
+
+    /**
+     * Streams {@code raw_url} content into the buffer, e.g. a direct one to keep large files off the heap. The
+     * buffer's position is advanced past the content; content that does not fit fails the transfer.
+     */
+    public RawDownload downloadRaw(HttpGet httpGet, ByteBuffer target, RawDownloadOptions options)
+            throws IOException {
+        return downloadRaw(httpGet, RawDownload.Sink.of(target), options);
+    }
+
+    private RawDownload downloadRaw(HttpGet httpGet, RawDownload.Sink sink, RawDownloadOptions options)
+            throws IOException {
+        logRequest(httpGet);
+        var digest = ResponseCache.sha256();
+        var buffer = new byte[RAW_CHUNK_SIZE];
+        long received = 0;
+        var resumes = 0;
+        while (true) {
+            var request = ResponseCache.copy(httpGet);
+            // ranges refer to the encoded body, so the transfer must not be compressed
+            request.setHeader(HttpHeaders.ACCEPT_ENCODING, "identity");
+            if (received > 0) {
+                request.setHeader(HttpHeaders.RANGE, "bytes=" + received + "-");
+            }
+            IOException broken = null;
+            try (var response = execute(request)) {
+                var offset = rangeStart(response, received);
+                if (offset == 0 && received > 0) {
+                    // the server ignored the range and sent everything again
+                    sink.restart();
+                    digest.reset();
+                    received = 0;
+                }
+                var length = response.head.getFirstHeader(HttpHeaders.CONTENT_LENGTH);
+                if (Objects.nonNull(length) && received + Long.parseLong(length.getValue()) > options.getMaxSize()) {
+                    throw new BodyTooLargeException("Raw content exceeds the limit of " + options.getMaxSize()
+                            + " bytes");
+                }
+                try (var stream = response.getStream()) {
+                    while (true) {
+                        int read;
+                        try {
+                            read = stream.read(buffer);
+                        } catch (BodyTooLargeException e) {
+                            throw e;
+                        } catch (IOException e) {
+                            // only a broken transfer is resumed
+                            broken = e;
+                            break;
+                        }
+                        if (read < 0) {
+                            break;
+                        }
+                        if (received + read > options.getMaxSize()) {
+                            throw new BodyTooLargeException("Raw content exceeds the limit of " + options.getMaxSize()
+                                    + " bytes");
+                        }
+                        digest.update(buffer, 0, read);
+                        sink.write(buffer, read);
+                        received += read;
+                    }
+                } catch (IOException e) {
+                    // closing a stream that broke mid-transfer may fail as well
+                    if (Objects.isNull(broken)) {
+                        throw e;
+                    }
+                }
+            }
+            if (Objects.isNull(broken)) {
+                break;
+            }
+            if (resumes >= options.getMaxResumes()) {
+                throw broken;
+            }
+            var resumeAt = received;
+            var cause = broken;
+            logger.fine(() -> "Resuming raw download at byte " + resumeAt + ": " + cause);
+            resumes++;
+        }
+        var sha256 = ResponseCache.hex(digest.digest());
+        if (Objects.nonNull(options.getExpectedSha256()) && !options.getExpectedSha256().equalsIgnoreCase(sha256)) {
+            throw new IOException("SHA-256 of raw content is " + sha256 + ", expected " + options.getExpectedSha256());
+        }
+        return new RawDownload(received, sha256, resumes);
+    }
+
+    /**
+     * @return offset the response body starts at, 0 for a full {@code 200} response
+     */
+    private static long rangeStart(HttpResponseReader response, long requested) throws IOException {
+        if (response.getCode() == HttpStatus.SC_OK) {
+            return 0;
+        }
+        if (response.getCode() != HttpStatus.SC_PARTIAL_CONTENT) {
+            throw new IOException("Raw download failed with status " + response.getCode());
+        }
+        var range = response.getHeader(HttpHeaders.CONTENT_RANGE);
+        if (Objects.isNull(range) || !range.startsWith("bytes " + requested + "-")) {
+            throw new IOException("Unexpected Content-Range '" + range + "' when resuming at byte " + requested);
+        }
+        return requested;
+    }
+
+    /**
+     * @return cache of conditional GET responses, {@code null} unless enabled with
+     * {@link ClientConfig#getResponseCacheSize()}
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * @return rate-limit scheduler, {@code null} unless enabled with {@link ClientConfig#getRateLimit()}
+     */
+    public RateLimitScheduler getRateLimitScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return hedging, retry and circuit breaker state, {@code null} unless enabled with
+     * {@link ClientConfig#getResilience()}
+     */
+    public ResiliencePolicy getResilience() {
+        return resilience;
+    }
+
+    /**
+     * @return request metrics of this client, see {@link ClientMetrics#snapshot()} and {@link ClientMetrics#toJson()}
+     */
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return leased, pending, available and max connections of the whole pool, the async one in HTTP/2 mode
+     */
+    public PoolStats getPoolStats() {
+        return Objects.isNull(h2) ? connectionManager.getTotalStats() : h2.getPoolStats();
+    }
+
+    @Override
+    public void close() {
+        // an owned pool is closed together with the client, a shared one is left to its owner
+        if (Objects.nonNull(client)) {
+            client.close(CloseMode.GRACEFUL);
+        }
+        if (Objects.nonNull(h2)) {
+            h2.close();
+        }
     }
 }
@@ -0,0 +1,156 @@
+package com.github.rest;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Connection pool and timeout settings for {@link ClientBase} and {@link AsyncClientBase}.
+ * <p>
+ * The defaults are sized for concurrent traffic to a single host (api.github.com): one route gets
+ * most of the pool, idle TLS connections are kept warm and re-validated before reuse.
+ */
+@Getter
+@Builder
+@ToString
+public class ClientConfig {
+    @Builder.Default
+    private final int maxConnectionsTotal = 50;
+    @Builder.Default
+    private final int maxConnectionsPerRoute = 25;
+    @Builder.Default
+    private final Duration validateAfterInactivity = Duration.ofSeconds(2);
+    @Builder.Default
+    private final Duration connectionTimeToLive = Duration.ofMinutes(5);
+    @Builder.Default
+    private final Duration keepAlive = Duration.ofSeconds(60);
+    @Builder.Default
+    private final Duration idleEviction = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration connectTimeout = Duration.ofSeconds(10);
+    @Builder.Default
+    private final Duration socketTimeout = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration responseTimeout = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration connectionRequestTimeout = Duration.ofSeconds(30);
+    @Builder.Default
+    private final long maxResponseBodySize = 32L * 1024 * 1024;
+    /**
+     * Advertises {@code gzip, deflate} and decodes compressed responses while they are streamed.
+     */
+    @Builder.Default
+    private final boolean contentCompression = true;
+    /**
+     * POST/PATCH bodies of at least this many bytes (or of unknown length) are sent gzip-encoded; {@code 0} never
+     * compresses. Only for servers that accept {@code Content-Encoding: gzip} requests.
+     */
+    @Builder.Default
+    private final long requestCompressionThreshold = 0;
+    /**
+     * Number of GET responses kept for ETag/Last-Modified revalidation; {@code 0} disables the cache.
+     */
+    @Builder.Default
+    private final int responseCacheSize = 0;
+    /**
+     * {@code null} keeps the pooled HTTP/1.1 transport. Otherwise requests run on the async client and are
+     * multiplexed over one HTTP/2 connection per host: {@code NEGOTIATE} picks h2 through TLS ALPN and falls back to
+     * HTTP/1.1 for servers (and plain connections) without it, {@code FORCE_HTTP_2} also speaks h2c to plain
+     * {@code http://} hosts.
+     */
+    private final HttpVersionPolicy httpVersionPolicy;
+    /**
+     * Streams this client allows the server to open towards it in HTTP/2 mode. Requests beyond the server's own
+     * {@code SETTINGS_MAX_CONCURRENT_STREAMS} are queued on the connection until a stream completes.
+     */
+    @Builder.Default
+    private final int maxConcurrentStreams = 100;
+    /**
+     * Rate-limit aware admission control; {@code null} sends requests as soon as a connection is available.
+     */
+    private final RateLimitConfig rateLimit;
+    /**
+     * Hedging, retries and circuit breaking for GET and DELETE; {@code null} makes exactly one attempt.
+     */
+    private final ResilienceConfig resilience;
+
+    public static ClientConfig defaults() {
+        return ClientConfig.builder().build();
+    }
+
+    /**
+     * Creates a pool with these settings. The same manager can be handed to several {@link ClientBase}
+     * instances so that they share warm connections.
+     */
+    public PoolingHttpClientConnectionManager newConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(toConnectionConfig())
+                .build();
+    }
+
+    /**
+     * Async pool with these settings, for {@link AsyncClientBase} and the HTTP/2 transport.
+     */
+    PoolingAsyncClientConnectionManager newAsyncConnectionManager() {
+        var builder = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setDefaultConnectionConfig(toConnectionConfig())
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setMaxConnPerRoute(maxConnectionsPerRoute);
+        if (Objects.nonNull(httpVersionPolicy)) {
+            builder.setDefaultTlsConfig(TlsConfig.custom().setVersionPolicy(httpVersionPolicy).build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Async client on top of the given pool, with the timeouts and idle eviction of these settings.
+     */
+    HttpAsyncClientBuilder newAsyncClientBuilder(PoolingAsyncClientConnectionManager connectionManager) {
+        return HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(toRequestConfig())
+                .evictIdleConnections(toTimeValue(idleEviction));
+    }
+
+    ConnectionConfig toConnectionConfig() {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(toTimeout(connectTimeout))
+                .setSocketTimeout(toTimeout(socketTimeout))
+                .setValidateAfterInactivity(toTimeValue(validateAfterInactivity))
+                .setTimeToLive(toTimeValue(connectionTimeToLive))
+                .build();
+    }
+
+    RequestConfig toRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(toTimeout(connectionRequestTimeout))
+                .setResponseTimeout(toTimeout(responseTimeout))
+                .setConnectionKeepAlive(toTimeValue(keepAlive))
+                .build();
+    }
+
+    static Timeout toTimeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    static TimeValue toTimeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
+}
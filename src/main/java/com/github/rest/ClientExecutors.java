@@ -0,0 +1,45 @@
+package com.github.rest;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for running blocking {@link ClientBase} calls in the background (page prefetch, bulk operations).
+ * Concurrency is bounded by the callers and by the connection pool, not by these executors.
+ * <p>
+ * The jar is multi-release: on Java 21+ the variant in {@code src/main/java21} replaces this class and starts a
+ * virtual thread per task, so thousands of concurrent blocking calls cost no platform threads.
+ */
+public final class ClientExecutors {
+    private static final ExecutorService SHARED = newPerRequestExecutor();
+
+    private ClientExecutors() {
+    }
+
+    /**
+     * @return process-wide executor; it must not be shut down
+     */
+    public static ExecutorService shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return new executor that starts a daemon thread per task as needed
+     */
+    public static ExecutorService newPerRequestExecutor() {
+        var counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "gist-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return whether {@link #newPerRequestExecutor()} starts virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return false;
+    }
+}
@@ -0,0 +1,187 @@
+package com.github.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Request metrics of a {@link ClientBase}: exchange counts and time to response head per method, endpoint template
+ * and status, plus connection-pool wait, body read time and bytes on the wire. Recording is lock-free, so it stays
+ * on for every request; {@link #snapshot()} is the only place that walks the data.
+ * <p>
+ * Together the three timings separate the usual suspects: a slow API shows in {@code latency}, pool exhaustion in
+ * {@code poolWait} and slow parsing or large bodies in {@code bodyRead}.
+ */
+public final class ClientMetrics {
+    /**
+     * Status recorded for exchanges that failed without a response.
+     */
+    public static final int NO_RESPONSE = 0;
+    static final String OTHER_ENDPOINT = "other";
+    private static final int MAX_SERIES = 512;
+    private static final Pattern ID_SEGMENT = Pattern.compile("[0-9a-fA-F]{20,}|[0-9]+");
+    private static final ObjectWriter WRITER = new ObjectMapper().writerWithDefaultPrettyPrinter();
+    private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final LatencyHistogram poolWait = new LatencyHistogram();
+    private final LatencyHistogram bodyRead = new LatencyHistogram();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder wireBytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    void recordExchange(String method, String path, int status, long nanos) {
+        var key = new SeriesKey(method, endpoint(path), status);
+        var current = series.get(key);
+        if (Objects.isNull(current)) {
+            // unknown path shapes (e.g. raw file names) must not grow the registry without bound
+            if (series.size() >= MAX_SERIES) {
+                key = new SeriesKey(method, OTHER_ENDPOINT, status);
+            }
+            current = series.computeIfAbsent(key, k -> new Series());
+        }
+        current.count.increment();
+        current.latency.record(nanos);
+    }
+
+    void recordPoolWait(long nanos) {
+        poolWait.record(nanos);
+    }
+
+    void recordBodyRead(long wireBytes, long bytes, long nanos) {
+        wireBytesIn.add(wireBytes);
+        bytesIn.add(bytes);
+        bodyRead.record(nanos);
+    }
+
+    void recordBytesOut(long bytes) {
+        if (bytes > 0) {
+            bytesOut.add(bytes);
+        }
+    }
+
+    /**
+     * Maps a request path to its endpoint template, e.g. {@code /gists/aa5a315d61ae9438b18d?page=2} to
+     * {@code /gists/{id}} and {@code /users/octocat/gists} to {@code /users/{user}/gists}.
+     */
+    static String endpoint(String path) {
+        if (Objects.isNull(path) || path.isEmpty()) {
+            return "/";
+        }
+        var query = path.indexOf('?');
+        var segments = (query >= 0 ? path.substring(0, query) : path).split("/");
+        var template = new StringBuilder();
+        String previous = null;
+        for (var segment : segments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/');
+            if ("users".equals(previous)) {
+                template.append("{user}");
+            } else if ("gists".equals(previous) || ID_SEGMENT.matcher(segment).matches()) {
+                template.append("{id}");
+            } else {
+                template.append(segment);
+            }
+            previous = segment;
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    public Snapshot snapshot() {
+        var exchanges = new ArrayList<ExchangeStats>(series.size());
+        series.forEach((key, value) -> exchanges.add(new ExchangeStats(key.method, key.endpoint, key.status,
+                value.count.sum(), value.latency.snapshot())));
+        exchanges.sort(Comparator.comparing(ExchangeStats::getEndpoint)
+                .thenComparing(ExchangeStats::getMethod)
+                .thenComparingInt(ExchangeStats::getStatus));
+        return new Snapshot(exchanges, poolWait.snapshot(), bodyRead.snapshot(), bytesIn.sum(), wireBytesIn.sum(),
+                bytesOut.sum());
+    }
+
+    /**
+     * @return {@link #snapshot()} as pretty-printed JSON
+     */
+    public String toJson() {
+        try {
+            return WRITER.writeValueAsString(snapshot());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize metrics", e);
+        }
+    }
+
+    private static final class SeriesKey {
+        private final String method;
+        private final String endpoint;
+        private final int status;
+
+        SeriesKey(String method, String endpoint, int status) {
+            this.method = method;
+            this.endpoint = endpoint;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SeriesKey)) {
+                return false;
+            }
+            var other = (SeriesKey) o;
+            return status == other.status && method.equals(other.method) && endpoint.equals(other.endpoint);
+        }
+
+        @Override
+        public int hashCode() {
+            return (method.hashCode() * 31 + endpoint.hashCode()) * 31 + status;
+        }
+    }
+
+    private static final class Series {
+        private final LongAdder count = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    /**
+     * Exchanges of one method, endpoint template and status; {@code latency} is the time to the response head.
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static final class ExchangeStats {
+        private final String method;
+        private final String endpoint;
+        private final int status;
+        private final long count;
+        private final LatencyHistogram.Snapshot latency;
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static final class Snapshot {
+        private final List<ExchangeStats> exchanges;
+        private final LatencyHistogram.Snapshot poolWait;
+        private final LatencyHistogram.Snapshot bodyRead;
+        /**
+         * Response body bytes after decoding.
+         */
+        private final long bytesIn;
+        /**
+         * Response body bytes as received, i.e. compressed when the server compressed them.
+         */
+        private final long wireBytesIn;
+        private final long bytesOut;
+    }
+}
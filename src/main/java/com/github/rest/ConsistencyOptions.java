@@ -0,0 +1,33 @@
+package com.github.rest;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Polling schedule of a {@link ConsistencyWaiter}: the first probe is immediate, the delay before each further
+ * one starts at {@code firstDelay} and doubles up to {@code maxDelay}.
+ */
+@Getter
+@Builder
+@ToString
+public class ConsistencyOptions {
+    @Builder.Default
+    private final Duration firstDelay = Duration.ofMillis(5);
+    @Builder.Default
+    private final Duration maxDelay = Duration.ofSeconds(1);
+    @Builder.Default
+    private final Duration timeout = Duration.ofSeconds(10);
+    /**
+     * Share of each delay that is randomized, so that concurrent waiters do not probe in lockstep; {@code 0.5}
+     * sleeps between half and all of the delay.
+     */
+    @Builder.Default
+    private final double jitter = 0.5;
+
+    public static ConsistencyOptions defaults() {
+        return ConsistencyOptions.builder().build();
+    }
+}
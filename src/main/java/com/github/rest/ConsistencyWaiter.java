@@ -0,0 +1,342 @@
+package com.github.rest;
+
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.ParseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Waits until the API reflects a write: a gist reads back in the expected state, is gone, or is (no longer)
+ * listed for its owner.
+ * <p>
+ * The first probe is sent right away, so a consistent API costs one request; further probes back off exponentially
+ * with jitter (see {@link ConsistencyOptions}). Probes repeat the previous {@code ETag} in {@code If-None-Match}, so
+ * an unchanged gist or listing page is answered with a body-less {@code 304} that does not count against the rate
+ * limit. Waits on ids of the same owner share listing probes: a caller that needs a fresh listing joins one that
+ * started after its own round did instead of listing the account again. How long waits took to converge is
+ * recorded in {@link #getConvergence()}.
+ */
+public class ConsistencyWaiter {
+    private final ClientBase client;
+    private final GistRequests requests;
+    private final String owner;
+    private final ConsistencyOptions options;
+    private final LatencyHistogram convergence = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder listings = new LongAdder();
+    private final Map<URI, ListingPage> pages = new ConcurrentHashMap<>();
+    private final ReentrantLock listingLock = new ReentrantLock();
+    private ListingProbe latestListing;
+
+    public ConsistencyWaiter(ClientBase client, GistRequests requests, String owner) {
+        this(client, requests, owner, ConsistencyOptions.defaults());
+    }
+
+    public ConsistencyWaiter(ClientBase client, GistRequests requests, String owner, ConsistencyOptions options) {
+        this.client = client;
+        this.requests = requests;
+        this.owner = owner;
+        this.options = options;
+    }
+
+    public static class Outcome {
+        private final boolean converged;
+        private final Duration elapsed;
+        private final int probes;
+        private final Set<String> pending;
+
+        Outcome(boolean converged, Duration elapsed, int probes, Set<String> pending) {
+            this.converged = converged;
+            this.elapsed = elapsed;
+            this.probes = probes;
+            this.pending = Collections.unmodifiableSet(pending);
+        }
+
+        public boolean isConverged() {
+            return converged;
+        }
+
+        /**
+         * @return time until the last probe, the timeout if the wait did not converge
+         */
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        public int getProbes() {
+            return probes;
+        }
+
+        /**
+         * @return ids still not in the expected state when the wait gave up
+         */
+        public Set<String> getPending() {
+            return pending;
+        }
+
+        @Override
+        public String toString() {
+            return "Outcome(converged=" + converged + ", elapsed=" + elapsed.toMillis() + " ms, probes=" + probes
+                    + (pending.isEmpty() ? "" : ", pending=" + pending) + ")";
+        }
+    }
+
+    /**
+     * Waits until reading the gist returns {@code 404}.
+     */
+    public Outcome awaitDeleted(String gistId) {
+        var probe = new GistProbe(gistId, null);
+        return await(Set.of(gistId), (ids, roundStart) -> probe.pending());
+    }
+
+    /**
+     * Waits until the gist reads back and satisfies {@code condition}, e.g. carries an updated description.
+     */
+    public Outcome awaitGist(String gistId, Predicate<Gist> condition) {
+        var probe = new GistProbe(gistId, Objects.requireNonNull(condition));
+        return await(Set.of(gistId), (ids, roundStart) -> probe.pending());
+    }
+
+    /**
+     * Waits until all gists appear in the owner's listing.
+     */
+    public Outcome awaitListed(Collection<String> gistIds) {
+        return await(gistIds, (ids, roundStart) -> {
+            var listed = listing(roundStart);
+            return ids.stream().filter(id -> !listed.contains(id)).collect(Collectors.toSet());
+        });
+    }
+
+    /**
+     * Waits until none of the gists appears in the owner's listing.
+     */
+    public Outcome awaitUnlisted(Collection<String> gistIds) {
+        return await(gistIds, (ids, roundStart) -> {
+            var listed = listing(roundStart);
+            return ids.stream().filter(listed::contains).collect(Collectors.toSet());
+        });
+    }
+
+    /**
+     * @return time the converged waits took
+     */
+    public LatencyHistogram getConvergence() {
+        return convergence;
+    }
+
+    /**
+     * @return number of waits that did not converge within the timeout
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return number of listings sent, at most one per round however many waits are in progress
+     */
+    public long getListings() {
+        return listings.sum();
+    }
+
+    private interface Probe {
+        /**
+         * @param roundStart {@link System#nanoTime()} when the round began
+         * @return ids of {@code ids} not in the expected state yet
+         */
+        Set<String> pending(Set<String> ids, long roundStart);
+    }
+
+    private Outcome await(Collection<String> gistIds, Probe probe) {
+        if (gistIds.isEmpty()) {
+            return new Outcome(true, Duration.ZERO, 0, Set.of());
+        }
+        var start = System.nanoTime();
+        var deadline = start + options.getTimeout().toNanos();
+        var delay = options.getFirstDelay().toNanos();
+        var pending = new LinkedHashSet<>(gistIds);
+        var probes = 0;
+        while (!pending.isEmpty()) {
+            pending.retainAll(probe.pending(pending, System.nanoTime()));
+            probes++;
+            var remaining = deadline - System.nanoTime();
+            if (pending.isEmpty() || remaining <= 0) {
+                break;
+            }
+            sleep(Math.min(jittered(delay), remaining));
+            delay = Math.min(delay * 2, options.getMaxDelay().toNanos());
+        }
+        var elapsed = System.nanoTime() - start;
+        if (pending.isEmpty()) {
+            convergence.record(elapsed);
+        } else {
+            timeouts.increment();
+        }
+        return new Outcome(pending.isEmpty(), Duration.ofNanos(elapsed), probes, pending);
+    }
+
+    private long jittered(long delay) {
+        return delay - (long) (ThreadLocalRandom.current().nextDouble() * options.getJitter() * delay);
+    }
+
+    /**
+     * Reads one gist, revalidating the previous answer so an unchanged gist is not decoded again.
+     */
+    private final class GistProbe {
+        private final String gistId;
+        private final Predicate<Gist> condition;
+        private String etag;
+        private boolean satisfied;
+
+        /**
+         * @param condition {@code null} to wait for {@code 404}
+         */
+        GistProbe(String gistId, Predicate<Gist> condition) {
+            this.gistId = gistId;
+            this.condition = condition;
+        }
+
+        Set<String> pending() {
+            var request = requests.get(gistId);
+            var revalidating = Objects.nonNull(etag);
+            if (revalidating) {
+                request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            try (var response = client.get(request)) {
+                var unchanged = response.getCode() == 304 || (revalidating && response.isFromCache());
+                if (!unchanged) {
+                    etag = response.getHeader(HttpHeaders.ETAG);
+                    satisfied = Objects.isNull(condition)
+                            ? response.getCode() == 404
+                            : response.getCode() == 200 && condition.test(GistCodec.readGist(response.getStream()));
+                }
+                return satisfied ? Set.of() : Set.of(gistId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class ListingProbe {
+        private final long started = System.nanoTime();
+        private final CompletableFuture<Set<String>> ids = new CompletableFuture<>();
+    }
+
+    /**
+     * @return ids the owner's listing held at some point after {@code notBefore}
+     */
+    private Set<String> listing(long notBefore) {
+        ListingProbe probe;
+        boolean mine;
+        listingLock.lock();
+        try {
+            mine = Objects.isNull(latestListing) || latestListing.started < notBefore;
+            if (mine) {
+                latestListing = new ListingProbe();
+            }
+            probe = latestListing;
+        } finally {
+            listingLock.unlock();
+        }
+        if (mine) {
+            try {
+                probe.ids.complete(listIds());
+            } catch (RuntimeException e) {
+                probe.ids.completeExceptionally(e);
+            }
+        }
+        try {
+            return probe.ids.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Set<String> listIds() {
+        listings.increment();
+        var ids = new HashSet<String>();
+        var uri = requests.userGistsUri(owner, Map.of("per_page", "100"));
+        while (Objects.nonNull(uri)) {
+            var page = listPage(uri);
+            ids.addAll(page.ids);
+            uri = page.next;
+        }
+        return ids;
+    }
+
+    private static final class ListingPage {
+        private final String etag;
+        private final List<String> ids;
+        private final URI next;
+
+        ListingPage(String etag, List<String> ids, URI next) {
+            this.etag = etag;
+            this.ids = ids;
+            this.next = next;
+        }
+    }
+
+    private ListingPage listPage(URI uri) {
+        var previous = pages.get(uri);
+        var request = requests.get(uri);
+        if (Objects.nonNull(previous)) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, previous.etag);
+        }
+        try (var response = client.get(request)) {
+            if (Objects.nonNull(previous) && (response.getCode() == 304 || response.isFromCache())) {
+                return previous;
+            }
+            if (response.getCode() != 200) {
+                throw new IOException("Listing " + uri + " failed with status " + response.getCode()
+                        + ": " + response.getPayload());
+            }
+            List<String> ids;
+            try (var parser = response.getParser()) {
+                ids = GistCodec.readGistIds(parser);
+            }
+            var page = new ListingPage(response.getHeader(HttpHeaders.ETAG), ids,
+                    GistPager.parseNextLink(response.getHeader("Link")));
+            if (Objects.nonNull(page.etag)) {
+                pages.put(uri, page);
+            }
+            return page;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for consistency", e);
+        }
+    }
+}
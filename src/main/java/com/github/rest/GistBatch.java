@@ -0,0 +1,289 @@
+package com.github.rest;
+
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.models.GistRequest;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Creates, reads, updates or deletes many gists with at most {@code parallelism} requests in flight. Every item gets its
+ * own {@link Item result} in input order; a failed item never stops the rest of the batch.
+ */
+public class GistBatch {
+    private static final Duration MILLISECOND = Duration.of(1, ChronoUnit.MILLIS);
+    private static final Duration SECOND = Duration.of(1, ChronoUnit.SECONDS);
+    private final ClientBase client;
+    private final GistRequests requests;
+    private final int parallelism;
+    private final Executor executor;
+
+    public GistBatch(ClientBase client, GistRequests requests, int parallelism) {
+        this(client, requests, parallelism, ClientExecutors.shared());
+    }
+
+    public GistBatch(ClientBase client, GistRequests requests, int parallelism, Executor executor) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.client = client;
+        this.requests = requests;
+        this.parallelism = parallelism;
+        this.executor = executor;
+    }
+
+    public enum Ordering {
+        /**
+         * Items run concurrently, the server may assign them timestamps in any order.
+         */
+        UNORDERED,
+        /**
+         * Items are created one at a time and each {@code created_at} is strictly later than the previous one, so a
+         * {@code since} taken from item {@code n} lists exactly the items from {@code n} on. The next creation waits
+         * until the previous timestamp can no longer be repeated: a millisecond for fractional timestamps, a second
+         * for the whole-second timestamps of api.github.com.
+         */
+        SEQUENTIAL
+    }
+
+    /**
+     * Outcome of one item: {@code status} is the HTTP status, or {@code 0} when no response arrived.
+     */
+    public static class Item {
+        private final int index;
+        private final String id;
+        private final int status;
+        private final Gist gist;
+        private final String error;
+
+        Item(int index, String id, int status, Gist gist, String error) {
+            this.index = index;
+            this.id = id;
+            this.status = status;
+            this.gist = gist;
+            this.error = error;
+        }
+
+        /**
+         * @return position of the item in the input
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return id of the gist; {@code null} for a failed creation
+         */
+        public String getId() {
+            return id;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the created, read or updated gist; {@code null} for deletions and failures
+         */
+        public Gist getGist() {
+            return gist;
+        }
+
+        /**
+         * @return failure reason, {@code null} on success
+         */
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccessful() {
+            return Objects.isNull(error);
+        }
+
+        @Override
+        public String toString() {
+            return "Item(index=" + index + ", id=" + id + ", status=" + status
+                    + (isSuccessful() ? "" : ", error=" + error) + ")";
+        }
+    }
+
+    public static class Result {
+        private final List<Item> items;
+
+        Result(List<Item> items) {
+            this.items = Collections.unmodifiableList(items);
+        }
+
+        /**
+         * @return one item per input, in input order
+         */
+        public List<Item> getItems() {
+            return items;
+        }
+
+        /**
+         * @return created, read or updated gists in input order, failed items left out
+         */
+        public List<Gist> getGists() {
+            return items.stream().map(Item::getGist).filter(Objects::nonNull).collect(Collectors.toList());
+        }
+
+        public List<Item> getFailures() {
+            return items.stream().filter(item -> !item.isSuccessful()).collect(Collectors.toList());
+        }
+
+        public boolean isSuccessful() {
+            return items.stream().allMatch(Item::isSuccessful);
+        }
+
+        @Override
+        public String toString() {
+            return "Result(items=" + items.size() + ", failures=" + getFailures() + ")";
+        }
+    }
+
+    public Result createAll(List<GistRequest> gists) {
+        return createAll(gists, Ordering.UNORDERED);
+    }
+
+    public Result createAll(List<GistRequest> gists, Ordering ordering) {
+        if (ordering == Ordering.UNORDERED) {
+            return run(gists.size(), i -> create(i, gists.get(i)));
+        }
+        var items = new ArrayList<Item>(gists.size());
+        var pause = Duration.ZERO;
+        var previous = 0L;
+        for (var i = 0; i < gists.size(); i++) {
+            sleep(pause.minusNanos(System.nanoTime() - previous));
+            var item = create(i, gists.get(i));
+            previous = System.nanoTime();
+            if (item.isSuccessful() && !pause.equals(MILLISECOND)) {
+                pause = timestampResolution(item.getGist().getCreatedAt());
+            }
+            items.add(item);
+        }
+        return new Result(items);
+    }
+
+    /**
+     * Reads full gists, file contents included, as listings leave them out.
+     */
+    public Result getAll(Collection<String> gistIds) {
+        var ids = new ArrayList<>(gistIds);
+        return run(ids.size(), i -> get(i, ids.get(i)));
+    }
+
+    /**
+     * @param gists changes by gist id; items keep the iteration order of the map
+     */
+    public Result updateAll(Map<String, GistRequest> gists) {
+        var entries = new ArrayList<>(gists.entrySet());
+        return run(entries.size(), i -> update(i, entries.get(i).getKey(), entries.get(i).getValue()));
+    }
+
+    /**
+     * Deletes without verifying that the gists have left the listing, see {@link BulkDeleter} for that.
+     * An already missing gist ({@code 404}) counts as deleted.
+     */
+    public Result deleteAll(Collection<String> gistIds) {
+        var ids = new ArrayList<>(gistIds);
+        return run(ids.size(), i -> delete(i, ids.get(i)));
+    }
+
+    private Result run(int size, IntFunction<Item> task) {
+        var items = new Item[size];
+        var queue = IntStream.range(0, size).boxed().collect(Collectors.toCollection(ConcurrentLinkedQueue::new));
+        var workers = new ArrayList<CompletableFuture<Void>>();
+        for (var i = 0; i < Math.min(parallelism, size); i++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                for (var index = queue.poll(); Objects.nonNull(index); index = queue.poll()) {
+                    items[index] = task.apply(index);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture<?>[0])).join();
+        return new Result(Arrays.asList(items));
+    }
+
+    private Item create(int index, GistRequest gist) {
+        return write(index, null, requests.create(gist), 201);
+    }
+
+    private Item get(int index, String id) {
+        try (var response = client.get(requests.get(id))) {
+            if (response.getCode() != 200) {
+                return new Item(index, id, response.getCode(), null, "unexpected status " + response.getCode());
+            }
+            return new Item(index, id, response.getCode(), GistCodec.readGist(response.getStream()), null);
+        } catch (IOException | RuntimeException e) {
+            return new Item(index, id, ClientMetrics.NO_RESPONSE, null, e.toString());
+        }
+    }
+
+    private Item update(int index, String id, GistRequest gist) {
+        return write(index, id, requests.update(id, gist), 200);
+    }
+
+    private Item write(int index, String id, ClassicHttpRequest request, int expected) {
+        try (var response = client.executeRequestWithEntity(request)) {
+            if (response.getCode() != expected) {
+                return new Item(index, id, response.getCode(), null, "unexpected status " + response.getCode());
+            }
+            var gist = GistCodec.readGist(response.getStream());
+            return new Item(index, gist.getId(), response.getCode(), gist, null);
+        } catch (IOException | RuntimeException e) {
+            return new Item(index, id, ClientMetrics.NO_RESPONSE, null, e.toString());
+        }
+    }
+
+    private Item delete(int index, String id) {
+        try {
+            var status = client.delete(requests.delete(id));
+            // 404: already gone, which is what the caller wants
+            var error = status == 204 || status == 404 ? null : "unexpected status " + status;
+            return new Item(index, id, status, null, error);
+        } catch (IOException | RuntimeException e) {
+            return new Item(index, id, ClientMetrics.NO_RESPONSE, null, e.toString());
+        }
+    }
+
+    /**
+     * The server stamps the next gist at least as much later as passes here between receiving one response and
+     * sending the next request, so waiting one unit of the timestamp resolution is enough, whatever the clock skew.
+     * A millisecond timestamp that falls on a whole second prints without a fraction, hence the resolution only
+     * ever gets finer.
+     *
+     * @return time to wait after a response stamped {@code timestamp} before the next gist is stamped later
+     */
+    public static Duration timestampResolution(String timestamp) {
+        return Objects.nonNull(timestamp) && timestamp.contains(".") ? MILLISECOND : SECOND;
+    }
+
+    private static void sleep(Duration delay) {
+        if (delay.isNegative() || delay.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay.toMillis(), delay.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pacing ordered creation", e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.rest;
+
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.models.GistProjection;
+import org.apache.hc.core5.http.ParseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily walks a paginated gist listing by following the {@code Link: <...>; rel="next"} header.
+ * While page N is being consumed, page N+1 is already requested in the background, so listing a large
+ * account costs about one round trip per page with the latencies overlapping the processing.
+ */
+public class GistPager {
+    private static final Pattern NEXT_LINK = Pattern.compile("<([^>]+)>\\s*;\\s*rel=\"next\"");
+    private final ClientBase client;
+    private final GistRequests requests;
+    private final Executor executor;
+    private final GistProjection projection;
+
+    public GistPager(ClientBase client, GistRequests requests) {
+        this(client, requests, ClientExecutors.shared());
+    }
+
+    public GistPager(ClientBase client, GistRequests requests, Executor executor) {
+        this(client, requests, executor, GistProjection.FULL);
+    }
+
+    /**
+     * @param projection fields decoded for each listed gist, e.g. {@link GistProjection#IDS} to count or collect ids
+     */
+    public GistPager(ClientBase client, GistRequests requests, Executor executor, GistProjection projection) {
+        this.client = client;
+        this.requests = requests;
+        this.executor = executor;
+        this.projection = projection;
+    }
+
+    /**
+     * Streams all gists of a user. {@code per_page} and {@code since} are optional and independent;
+     * {@code page} selects the first page to read. Close the stream to drop a pending prefetch.
+     */
+    public Stream<Gist> userGists(String owner, Map<String, String> params) {
+        return stream(requests.userGistsUri(owner, params));
+    }
+
+    public Stream<Gist> stream(URI firstPage) {
+        var iterator = new PageIterator(firstPage);
+        var spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(iterator::cancel);
+    }
+
+    public Iterator<Gist> iterator(URI firstPage) {
+        return new PageIterator(firstPage);
+    }
+
+    /**
+     * @return target of the {@code rel="next"} link, {@code null} on the last page
+     */
+    public static URI parseNextLink(String linkHeader) {
+        if (Objects.isNull(linkHeader)) {
+            return null;
+        }
+        var matcher = NEXT_LINK.matcher(linkHeader);
+        return matcher.find() ? URI.create(matcher.group(1)) : null;
+    }
+
+    private Page fetch(URI uri) {
+        try (var response = client.get(requests.get(uri))) {
+            if (response.getCode() != 200) {
+                throw new IOException("Listing " + uri + " failed with status " + response.getCode()
+                        + ": " + response.getPayload());
+            }
+            try (var parser = response.getParser()) {
+                return new Page(GistCodec.readGists(parser, projection), parseNextLink(response.getHeader("Link")));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CompletableFuture<Page> fetchAsync(URI uri) {
+        return CompletableFuture.supplyAsync(() -> fetch(uri), executor);
+    }
+
+    private static class Page {
+        private final List<Gist> gists;
+        private final URI next;
+
+        Page(List<Gist> gists, URI next) {
+            this.gists = gists;
+            this.next = next;
+        }
+    }
+
+    private class PageIterator implements Iterator<Gist> {
+        private Iterator<Gist> current = Collections.emptyIterator();
+        private CompletableFuture<Page> next;
+
+        PageIterator(URI firstPage) {
+            next = fetchAsync(firstPage);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (Objects.isNull(next)) {
+                    return false;
+                }
+                var page = await(next);
+                // request the following page before handing out this one
+                next = Objects.isNull(page.next) ? null : fetchAsync(page.next);
+                current = page.gists.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Gist next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        void cancel() {
+            if (Objects.nonNull(next)) {
+                next.cancel(true);
+                next = null;
+            }
+        }
+
+        private Page await(CompletableFuture<Page> page) {
+            try {
+                return page.join();
+            } catch (CompletionException e) {
+                next = null;
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
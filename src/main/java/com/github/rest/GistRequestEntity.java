@@ -0,0 +1,57 @@
+package com.github.rest;
+
+import com.github.models.GistRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Chunked entity that serializes a {@link GistRequest} directly into the connection's output stream.
+ */
+public class GistRequestEntity extends AbstractHttpEntity {
+    private final GistRequest request;
+
+    public GistRequestEntity(GistRequest request) {
+        super(ContentType.APPLICATION_JSON, null, true);
+        this.request = request;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        request.writeTo(outStream);
+    }
+
+    /**
+     * Buffers the whole body; only meant for callers that need the bytes up front, such as the async client.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        request.writeTo(buffer);
+        return new ByteArrayInputStream(buffer.toByteArray());
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return request.isRepeatable();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+}
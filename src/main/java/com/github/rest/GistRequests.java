@@ -0,0 +1,96 @@
+package com.github.rest;
+
+import com.github.models.GistRequest;
+import org.apache.hc.client5.http.classic.methods.HttpDelete;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPatch;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.net.URIBuilder;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Builds authenticated requests for the gists REST API rooted at {@code baseUrl}
+ * (e.g. {@code https://api.github.com/gists}).
+ */
+public class GistRequests {
+    private final String baseUrl;
+    private final String token;
+
+    public GistRequests(String baseUrl, String token) {
+        this.baseUrl = baseUrl;
+        this.token = token;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void addHeaders(HttpUriRequestBase request) {
+        request.addHeader("Accept", "application/vnd.github.v3+json");
+        if (Objects.nonNull(token)) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        request.addHeader("X-GitHub-Api-Version", "2022-11-28");
+        request.addHeader("Content-Type", "application/json");
+    }
+
+    public HttpGet get(String gistId) {
+        return withHeaders(new HttpGet(baseUrl + "/" + gistId));
+    }
+
+    public HttpGet get(URI uri) {
+        return withHeaders(new HttpGet(uri));
+    }
+
+    public HttpPost create(HttpEntity entity) {
+        var request = withHeaders(new HttpPost(baseUrl));
+        request.setEntity(entity);
+        return request;
+    }
+
+    public HttpPost create(GistRequest gist) {
+        return create(new GistRequestEntity(gist));
+    }
+
+    public HttpPatch update(String gistId, HttpEntity entity) {
+        var request = withHeaders(new HttpPatch(baseUrl + "/" + gistId));
+        request.setEntity(entity);
+        return request;
+    }
+
+    public HttpPatch update(String gistId, GistRequest gist) {
+        return update(gistId, new GistRequestEntity(gist));
+    }
+
+    public HttpDelete delete(String gistId) {
+        return withHeaders(new HttpDelete(baseUrl + "/" + gistId));
+    }
+
+    /**
+     * Lists gists of a user. Any of {@code page}, {@code per_page} and {@code since} may be given independently.
+     */
+    public HttpGet userGists(String owner, Map<String, String> params) {
+        return get(userGistsUri(owner, params));
+    }
+
+    public URI userGistsUri(String owner, Map<String, String> params) {
+        try {
+            var builder = new URIBuilder(baseUrl.replace("/gists", "") + "/users/" + owner + "/gists");
+            params.forEach(builder::addParameter);
+            return builder.build();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Can't build gists url for user '" + owner + "'", e);
+        }
+    }
+
+    private <T extends HttpUriRequestBase> T withHeaders(T request) {
+        addHeaders(request);
+        return request;
+    }
+}
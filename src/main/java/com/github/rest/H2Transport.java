@@ -0,0 +1,236 @@
+package com.github.rest;
+
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityProducer;
+import org.apache.hc.core5.http.nio.support.classic.SharedInputBuffer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * HTTP/2 transport of {@link ClientBase}: blocking calls on top of the async client, so concurrent callers share
+ * one multiplexed connection per host instead of one pooled connection each. A call returns once the response head
+ * has arrived; the body is streamed through a bounded buffer whose free space is the stream's flow-control window,
+ * so a slow reader holds back the server instead of growing the heap.
+ */
+class H2Transport implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final PoolingAsyncClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient client;
+
+    H2Transport(ClientConfig config) {
+        // the pool is only used up after a fallback to HTTP/1.1, an HTTP/2 connection is shared by all requests
+        this.connectionManager = config.newAsyncConnectionManager();
+        this.client = config.newAsyncClientBuilder(connectionManager)
+                .setH2Config(H2Config.custom()
+                        .setPushEnabled(false)
+                        .setMaxConcurrentStreams(config.getMaxConcurrentStreams())
+                        .build())
+                .build();
+        client.start();
+    }
+
+    /**
+     * @return response whose entity streams the body; closing it before the end of the body cancels the stream
+     */
+    ClassicHttpResponse execute(ClassicHttpRequest request) throws IOException {
+        var consumer = new StreamingConsumer();
+        var exchange = client.execute(toProducer(request), consumer, null);
+        consumer.exchange = exchange;
+        try {
+            return consumer.head.get();
+        } catch (InterruptedException e) {
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request);
+        } catch (ExecutionException e) {
+            exchange.cancel(true);
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Request failed: " + request, e.getCause());
+        }
+    }
+
+    /**
+     * Streams the request entity through its {@code writeTo} from a client executor, so compressing and counting
+     * entities work as on HTTP/1.1 and the body is never held in memory as a whole.
+     */
+    private static AsyncRequestProducer toProducer(ClassicHttpRequest request) throws IOException {
+        BasicHttpRequest head;
+        try {
+            head = new BasicHttpRequest(request.getMethod(), request.getUri());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid request URI: " + request, e);
+        }
+        head.setHeaders(request.getHeaders());
+        var entity = request.getEntity();
+        if (Objects.isNull(entity)) {
+            return new BasicRequestProducer(head, null);
+        }
+        var contentType = Objects.isNull(entity.getContentType()) ? null : ContentType.parse(entity.getContentType());
+        return new BasicRequestProducer(head, new AbstractClassicEntityProducer(BUFFER_SIZE, contentType,
+                ClientExecutors.shared()) {
+            @Override
+            protected void produceData(ContentType contentType, OutputStream outputStream) throws IOException {
+                entity.writeTo(outputStream);
+            }
+
+            @Override
+            public String getContentEncoding() {
+                return entity.getContentEncoding();
+            }
+        });
+    }
+
+    PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Hands the response over as soon as its head arrives and feeds the body into a {@link SharedInputBuffer}.
+     * The exchange only completes at the end of the body, so it can still be cancelled while the body is read.
+     */
+    private static final class StreamingConsumer implements AsyncResponseConsumer<ClassicHttpResponse> {
+        private final CompletableFuture<ClassicHttpResponse> head = new CompletableFuture<>();
+        private final SharedInputBuffer buffer = new SharedInputBuffer(BUFFER_SIZE);
+        private volatile Future<ClassicHttpResponse> exchange;
+        private volatile Exception failure;
+        private ClassicHttpResponse response;
+        private FutureCallback<ClassicHttpResponse> callback;
+
+        @Override
+        public void consumeResponse(HttpResponse head, EntityDetails entityDetails, HttpContext context,
+                                    FutureCallback<ClassicHttpResponse> callback) {
+            response = new BasicClassicHttpResponse(head.getCode(), head.getReasonPhrase());
+            response.setVersion(head.getVersion());
+            response.setHeaders(head.getHeaders());
+            this.callback = callback;
+            if (Objects.isNull(entityDetails)) {
+                buffer.markEndStream();
+                this.head.complete(response);
+                callback.completed(response);
+                return;
+            }
+            var contentType = Objects.isNull(entityDetails.getContentType())
+                    ? null
+                    : ContentType.parseLenient(entityDetails.getContentType());
+            response.setEntity(new InputStreamEntity(new BodyStream(), entityDetails.getContentLength(), contentType,
+                    entityDetails.getContentEncoding()));
+            this.head.complete(response);
+        }
+
+        @Override
+        public void informationResponse(HttpResponse response, HttpContext context) {
+        }
+
+        @Override
+        public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+            buffer.updateCapacity(capacityChannel);
+        }
+
+        @Override
+        public void consume(ByteBuffer src) {
+            buffer.fill(src);
+        }
+
+        @Override
+        public void streamEnd(List<? extends Header> trailers) {
+            buffer.markEndStream();
+            callback.completed(response);
+        }
+
+        @Override
+        public void failed(Exception cause) {
+            failure = cause;
+            buffer.abort();
+            head.completeExceptionally(cause);
+        }
+
+        @Override
+        public void releaseResources() {
+        }
+
+        /**
+         * Reads the buffer; a failed or cancelled exchange ends the stream with an {@link IOException} rather than
+         * a premature end of the body.
+         */
+        private final class BodyStream extends InputStream {
+            private boolean closed;
+
+            @Override
+            public int read() throws IOException {
+                checkOpen();
+                return checkFailure(buffer.read());
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                checkOpen();
+                return checkFailure(buffer.read(b, off, len));
+            }
+
+            private void checkOpen() throws IOException {
+                if (closed) {
+                    throw new IOException("Response body stream is closed");
+                }
+            }
+
+            private int checkFailure(int read) throws IOException {
+                if (read < 0 && Objects.nonNull(failure)) {
+                    throw failure instanceof IOException
+                            ? (IOException) failure
+                            : new IOException("Response body failed", failure);
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (!buffer.isEndStream()) {
+                    // resets the HTTP/2 stream, the connection stays open for the other streams
+                    exchange.cancel(true);
+                    buffer.abort();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close(CloseMode.GRACEFUL);
+    }
+}
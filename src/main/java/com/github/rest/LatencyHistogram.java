@@ -0,0 +1,111 @@
+package com.github.rest;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of durations in microseconds. Every power of two is split into 8 buckets, so
+ * a reported percentile is at most 12.5% above the recorded value; recording is a few atomic adds.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        var micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        buckets.incrementAndGet(index(micros));
+        count.increment();
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.99
+     * @return upper bound of the bucket holding the quantile in microseconds, 0 if nothing was recorded
+     */
+    public long percentile(double quantile) {
+        var counts = new long[BUCKETS];
+        long total = 0;
+        for (var i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return percentile(counts, total, quantile);
+    }
+
+    public Snapshot snapshot() {
+        var counts = new long[BUCKETS];
+        long total = 0;
+        for (var i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return new Snapshot(total, total == 0 ? 0 : sum.sum() / total, percentile(counts, total, 0.5),
+                percentile(counts, total, 0.99), percentile(counts, total, 0.999), max.get());
+    }
+
+    private long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        var rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (var i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // never report more than was actually recorded
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+        var subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        var shift = index / SUB_BUCKETS - 1;
+        var lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Point-in-time view of a histogram, all values in microseconds.
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static final class Snapshot {
+        private final long count;
+        private final long mean;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+    }
+}
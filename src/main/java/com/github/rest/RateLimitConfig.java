@@ -0,0 +1,40 @@
+package com.github.rest;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link RateLimitScheduler}. The mutation defaults follow GitHub's guidance for content-creating
+ * requests: one at a time, at least a second apart.
+ */
+@Getter
+@Builder
+@ToString
+public class RateLimitConfig {
+    /**
+     * Upper bound for the adaptive concurrency limit.
+     */
+    @Builder.Default
+    private final int maxConcurrency = 32;
+    /**
+     * Concurrency limit to start with before any feedback from the server.
+     */
+    @Builder.Default
+    private final int initialConcurrency = 8;
+    @Builder.Default
+    private final int maxConcurrentMutations = 1;
+    @Builder.Default
+    private final Duration mutationInterval = Duration.ofSeconds(1);
+    /**
+     * Pause after a secondary rate limit response that carries no {@code Retry-After}.
+     */
+    @Builder.Default
+    private final Duration secondaryLimitPause = Duration.ofMinutes(1);
+
+    public static RateLimitConfig defaults() {
+        return RateLimitConfig.builder().build();
+    }
+}
@@ -0,0 +1,219 @@
+package com.github.rest;
+
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Method;
+
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control in front of {@link ClientBase}'s exchanges, driven by GitHub's rate-limit headers.
+ * <ul>
+ *     <li>the requests left in the current window are taken from {@code X-RateLimit-Remaining} and counted down
+ *     as requests go out; once none are left, callers wait until {@code X-RateLimit-Reset};</li>
+ *     <li>concurrency is capped by an AIMD limit: it grows by one per window of successful responses and halves
+ *     on every rate-limited response, which also pauses all traffic for {@code Retry-After};</li>
+ *     <li>POST/PATCH/PUT/DELETE go through their own lane with limited concurrency and a minimum spacing.</li>
+ * </ul>
+ * Waiting uses a {@link ReentrantLock} condition, so blocked virtual threads do not pin their carrier.
+ */
+public class RateLimitScheduler {
+    private final RateLimitConfig config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final LongAdder throttled = new LongAdder();
+    private double concurrencyLimit;
+    private int inFlight;
+    private int mutationsInFlight;
+    private long nextMutationAtMillis;
+    private long remaining = -1;
+    private long resetAtMillis;
+    private long pausedUntilMillis;
+
+    public RateLimitScheduler(RateLimitConfig config) {
+        this.config = config;
+        this.concurrencyLimit = Math.min(config.getInitialConcurrency(), config.getMaxConcurrency());
+    }
+
+    /**
+     * Admission ticket for one exchange; hand it back through {@link #complete} or {@link #fail}.
+     */
+    static final class Permit {
+        private final boolean mutation;
+
+        private Permit(boolean mutation) {
+            this.mutation = mutation;
+        }
+    }
+
+    Permit acquire(HttpRequest request) throws InterruptedIOException {
+        var mutation = isMutation(request);
+        lock.lock();
+        try {
+            for (var waitMillis = waitTime(mutation); waitMillis != 0; waitMillis = waitTime(mutation)) {
+                if (waitMillis < 0) {
+                    changed.await();
+                } else {
+                    changed.await(waitMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            inFlight++;
+            if (remaining > 0) {
+                remaining--;
+            }
+            if (mutation) {
+                mutationsInFlight++;
+                nextMutationAtMillis = System.currentTimeMillis() + config.getMutationInterval().toMillis();
+            }
+            return new Permit(mutation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return milliseconds to wait before the request may go, {@code -1} to wait for a signal, {@code 0} to proceed
+     */
+    private long waitTime(boolean mutation) {
+        var now = System.currentTimeMillis();
+        if (pausedUntilMillis > now) {
+            return pausedUntilMillis - now;
+        }
+        if (remaining == 0) {
+            if (resetAtMillis > now) {
+                return resetAtMillis - now;
+            }
+            // the window has rolled over; the next response tells the new budget
+            remaining = -1;
+        }
+        if (inFlight >= (int) concurrencyLimit) {
+            return -1;
+        }
+        if (mutation) {
+            if (mutationsInFlight >= config.getMaxConcurrentMutations()) {
+                return -1;
+            }
+            if (nextMutationAtMillis > now) {
+                return nextMutationAtMillis - now;
+            }
+        }
+        return 0;
+    }
+
+    void complete(Permit permit, HttpResponse response) {
+        lock.lock();
+        try {
+            release(permit);
+            var remainingHeader = longHeader(response, "X-RateLimit-Remaining");
+            var resetHeader = longHeader(response, "X-RateLimit-Reset");
+            if (Objects.nonNull(remainingHeader)) {
+                // responses of requests still in flight were counted by the server already or will be soon
+                remaining = Math.max(0, remainingHeader - inFlight);
+            }
+            if (Objects.nonNull(resetHeader)) {
+                resetAtMillis = TimeUnit.SECONDS.toMillis(resetHeader);
+            }
+            if (isRateLimited(response, remainingHeader)) {
+                throttled.increment();
+                concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+                var retryAfter = longHeader(response, "Retry-After");
+                var now = System.currentTimeMillis();
+                if (Objects.nonNull(retryAfter)) {
+                    pausedUntilMillis = Math.max(pausedUntilMillis, now + TimeUnit.SECONDS.toMillis(retryAfter));
+                } else if (!Objects.equals(remainingHeader, 0L)) {
+                    pausedUntilMillis = Math.max(pausedUntilMillis, now + config.getSecondaryLimitPause().toMillis());
+                }
+            } else {
+                concurrencyLimit = Math.min(config.getMaxConcurrency(), concurrencyLimit + 1 / concurrencyLimit);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void fail(Permit permit) {
+        lock.lock();
+        try {
+            release(permit);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit) {
+        inFlight--;
+        if (permit.mutation) {
+            mutationsInFlight--;
+        }
+    }
+
+    /**
+     * 429 is always a rate limit. 403 is one only when the primary budget is exhausted or the server asks to
+     * retry later (secondary limit); otherwise it is a plain permission error.
+     */
+    private static boolean isRateLimited(HttpResponse response, Long remaining) {
+        var code = response.getCode();
+        if (code == HttpStatus.SC_TOO_MANY_REQUESTS) {
+            return true;
+        }
+        return code == HttpStatus.SC_FORBIDDEN
+                && (Objects.equals(remaining, 0L) || response.containsHeader("Retry-After"));
+    }
+
+    private static boolean isMutation(HttpRequest request) {
+        var method = request.getMethod();
+        return Method.POST.isSame(method) || Method.PATCH.isSame(method)
+                || Method.PUT.isSame(method) || Method.DELETE.isSame(method);
+    }
+
+    private static Long longHeader(HttpResponse response, String name) {
+        var header = response.getFirstHeader(name);
+        if (Objects.isNull(header)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.getValue().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public double getConcurrencyLimit() {
+        lock.lock();
+        try {
+            return concurrencyLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return requests left in the current window as last reported by the server, {@code -1} if unknown
+     */
+    public long getRemaining() {
+        lock.lock();
+        try {
+            return remaining;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of responses that were rejected by a primary or secondary rate limit
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+}
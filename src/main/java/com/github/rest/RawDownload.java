@@ -0,0 +1,76 @@
+package com.github.rest;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Outcome of a {@link ClientBase#downloadRaw} transfer.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class RawDownload {
+    private final long size;
+    /**
+     * Lowercase hex SHA-256 of the whole content.
+     */
+    private final String sha256;
+    /**
+     * Number of {@code Range} requests needed to complete the transfer.
+     */
+    private final int resumes;
+
+    /**
+     * Target of a transfer; it must be able to drop what it received when a server answers a resume with the full
+     * content.
+     */
+    interface Sink {
+        void write(byte[] chunk, int length) throws IOException;
+
+        void restart() throws IOException;
+
+        static Sink of(FileChannel channel) throws IOException {
+            var start = channel.position();
+            return new Sink() {
+                @Override
+                public void write(byte[] chunk, int length) throws IOException {
+                    var buffer = ByteBuffer.wrap(chunk, 0, length);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+
+                @Override
+                public void restart() throws IOException {
+                    channel.truncate(start);
+                    channel.position(start);
+                }
+            };
+        }
+
+        static Sink of(ByteBuffer target) {
+            var start = target.position();
+            return new Sink() {
+                @Override
+                public void write(byte[] chunk, int length) throws IOException {
+                    if (length > target.remaining()) {
+                        throw new IOException("Raw content does not fit into the buffer of " + target.capacity()
+                                + " bytes");
+                    }
+                    target.put(chunk, 0, length);
+                }
+
+                @Override
+                public void restart() {
+                    target.position(start);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.rest;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Settings for {@link ClientBase#downloadRaw} transfers of {@code raw_url} content.
+ */
+@Getter
+@Builder
+@ToString
+public class RawDownloadOptions {
+    /**
+     * Largest accepted file; the default is GitHub's 10 MB limit for raw gist files.
+     */
+    @Builder.Default
+    private final long maxSize = 10 * 1024 * 1024;
+    /**
+     * Lowercase hex SHA-256 the content must match, {@code null} to skip verification.
+     */
+    private final String expectedSha256;
+    /**
+     * How many times a broken transfer is resumed with a {@code Range} request before giving up.
+     */
+    @Builder.Default
+    private final int maxResumes = 3;
+
+    public static RawDownloadOptions defaults() {
+        return RawDownloadOptions.builder().build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.rest;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link ResiliencePolicy}, which guards {@link ClientBase}'s idempotent calls (GET, DELETE).
+ */
+@Getter
+@Builder
+@ToString
+public class ResilienceConfig {
+    /**
+     * A GET still waiting for its response after this percentile of the endpoint's observed latency gets a hedged
+     * duplicate; the first response wins. {@code 0} disables hedging.
+     */
+    @Builder.Default
+    private final double hedgePercentile = 0.95;
+    /**
+     * Responses an endpoint needs to have seen before its latency percentile is trusted for hedging.
+     */
+    @Builder.Default
+    private final int hedgeMinSamples = 32;
+    @Builder.Default
+    private final Duration minHedgeDelay = Duration.ofMillis(10);
+    /**
+     * Attempts per call, including the first, for 5xx responses and connection failures.
+     */
+    @Builder.Default
+    private final int maxAttempts = 3;
+    @Builder.Default
+    private final Duration retryBaseDelay = Duration.ofMillis(50);
+    @Builder.Default
+    private final Duration retryMaxDelay = Duration.ofSeconds(2);
+    /**
+     * Hedges and retries share a budget that every call adds this fraction of a request to, so together they add at
+     * most this share of extra load however bad the API gets.
+     */
+    @Builder.Default
+    private final double budgetRatio = 0.1;
+    /**
+     * Extra requests the budget can save up, which also covers the first calls.
+     */
+    @Builder.Default
+    private final int budgetBurst = 10;
+    /**
+     * Consecutive failed attempts that open an endpoint's circuit; calls to it then fail fast.
+     */
+    @Builder.Default
+    private final int failureThreshold = 5;
+    /**
+     * Time an open circuit rejects calls before a single trial call may close it again.
+     */
+    @Builder.Default
+    private final Duration openDuration = Duration.ofSeconds(5);
+
+    public static ResilienceConfig defaults() {
+        return ResilienceConfig.builder().build();
+    }
+}
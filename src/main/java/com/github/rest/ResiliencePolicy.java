@@ -0,0 +1,432 @@
+package com.github.rest;
+
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.Method;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resilience layer for {@link ClientBase}'s idempotent calls, per endpoint template (see
+ * {@link ClientMetrics#endpoint(String)}):
+ * <ul>
+ *     <li>a GET that has not been answered within a high percentile of the endpoint's latency history gets a
+ *     hedged duplicate; the first response wins and the other request is cancelled;</li>
+ *     <li>5xx responses and connection failures are retried with exponential backoff and full jitter;</li>
+ *     <li>hedges and retries draw from a shared budget that grows with the calls made, so they cannot multiply
+ *     the load on a struggling API;</li>
+ *     <li>a circuit breaker per endpoint fails calls fast after consecutive failures and lets a single trial call
+ *     through once {@link ResilienceConfig#getOpenDuration()} has passed.</li>
+ * </ul>
+ * Waiting uses sleeps and futures, never monitors, so virtual threads do not pin their carrier.
+ */
+public class ResiliencePolicy {
+    private static final long TOKEN = 1000;
+    private static final int HEDGE_DELAY_REFRESH = 16;
+    private final ResilienceConfig config;
+    private final Executor executor;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong budget;
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ResiliencePolicy(ResilienceConfig config) {
+        this(config, ClientExecutors.shared());
+    }
+
+    /**
+     * @param executor runs the attempts of hedged calls
+     */
+    public ResiliencePolicy(ResilienceConfig config, Executor executor) {
+        if (config.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("Attempts must be positive: " + config.getMaxAttempts());
+        }
+        this.config = config;
+        this.executor = executor;
+        this.budget = new AtomicLong(config.getBudgetBurst() * TOKEN);
+    }
+
+    /**
+     * One exchange with the server, see {@link ClientBase}.
+     */
+    interface Exchange {
+        ClientBase.HttpResponseReader execute(ClassicHttpRequest request) throws IOException;
+    }
+
+    public enum CircuitState {CLOSED, OPEN, HALF_OPEN}
+
+    ClientBase.HttpResponseReader execute(ClassicHttpRequest request, Exchange exchange) throws IOException {
+        var name = request.getMethod() + " " + ClientMetrics.endpoint(request.getPath());
+        var endpoint = endpoints.computeIfAbsent(name, Endpoint::new);
+        deposit();
+        for (var attempt = 1; ; attempt++) {
+            if (!endpoint.admit()) {
+                rejected.increment();
+                throw new CircuitOpenException(name);
+            }
+            ClientBase.HttpResponseReader response;
+            try {
+                response = request instanceof HttpGet && config.getHedgePercentile() > 0
+                        ? hedged((HttpGet) request, exchange, endpoint)
+                        : timed(request, exchange, endpoint);
+            } catch (IOException e) {
+                endpoint.failed();
+                if (!isRetryable(e) || !mayRetry(attempt)) {
+                    throw e;
+                }
+                backOff(attempt);
+                continue;
+            }
+            if (!isRetryable(response.getCode())) {
+                endpoint.succeeded();
+                return response;
+            }
+            endpoint.failed();
+            if (!mayRetry(attempt)) {
+                return response;
+            }
+            response.close();
+            backOff(attempt);
+        }
+    }
+
+    /**
+     * @return state of the circuit of an endpoint, e.g. {@code GET /gists/{id}}
+     */
+    public CircuitState getCircuitState(String endpoint) {
+        var state = endpoints.get(endpoint);
+        return Objects.isNull(state) ? CircuitState.CLOSED : state.state();
+    }
+
+    /**
+     * @return delay in microseconds after which a GET of the endpoint is hedged, {@code -1} while its history is
+     * too short
+     */
+    public long getHedgeDelay(String endpoint) {
+        var state = endpoints.get(endpoint);
+        return Objects.isNull(state) ? -1 : TimeUnit.NANOSECONDS.toMicros(state.hedgeDelay());
+    }
+
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    /**
+     * @return hedged calls answered by the duplicate first
+     */
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return hedges and retries skipped because the budget was used up
+     */
+    public long getBudgetExhausted() {
+        return budgetExhausted.sum();
+    }
+
+    /**
+     * @return calls failed fast by an open circuit
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private ClientBase.HttpResponseReader timed(ClassicHttpRequest request, Exchange exchange, Endpoint endpoint)
+            throws IOException {
+        var start = System.nanoTime();
+        var response = exchange.execute(request);
+        if (!isRetryable(response.getCode())) {
+            endpoint.latency.record(System.nanoTime() - start);
+        }
+        return response;
+    }
+
+    /**
+     * Sends a copy of the GET from the executor and waits for the hedge delay; if it is still unanswered, another
+     * copy is sent too and whichever response comes first is returned. Only the losing copy is cancelled, the
+     * caller's request stays usable for retries.
+     */
+    private ClientBase.HttpResponseReader hedged(HttpGet request, Exchange exchange, Endpoint endpoint)
+            throws IOException {
+        var delay = endpoint.hedgeDelay();
+        if (delay < 0) {
+            return timed(request, exchange, endpoint);
+        }
+        var original = ResponseCache.copy(request);
+        var primary = attempt(original, exchange, endpoint);
+        try {
+            return primary.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // still waiting: hedge below
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            original.cancel();
+            throw new InterruptedIOException("Interrupted while waiting for " + request);
+        }
+        if (!withdraw()) {
+            return await(primary, request, original);
+        }
+        hedges.increment();
+        var duplicate = ResponseCache.copy(request);
+        var hedge = attempt(duplicate, exchange, endpoint);
+        var first = new CompletableFuture<ClientBase.HttpResponseReader>();
+        primary.thenAccept(response -> offer(first, response));
+        hedge.thenAccept(response -> offer(first, response));
+        // completes the result with an error only when neither attempt produced a response
+        CompletableFuture.allOf(primary, hedge).whenComplete((ignored, error) -> {
+            if (Objects.nonNull(error)) {
+                first.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+        var response = await(first, request, original, duplicate);
+        if (response == hedge.getNow(null)) {
+            hedgeWins.increment();
+            original.cancel();
+        } else {
+            duplicate.cancel();
+        }
+        return response;
+    }
+
+    private CompletableFuture<ClientBase.HttpResponseReader> attempt(HttpGet request, Exchange exchange,
+                                                                     Endpoint endpoint) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return timed(request, exchange, endpoint);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Hands the response to the caller unless the other attempt already did; a late response is released.
+     */
+    private static void offer(CompletableFuture<ClientBase.HttpResponseReader> first,
+                              ClientBase.HttpResponseReader response) {
+        if (!first.complete(response)) {
+            try {
+                response.close();
+            } catch (IOException e) {
+                // the winning response is already with the caller
+            }
+        }
+    }
+
+    /**
+     * @param attempts copies of the request in flight, cancelled on interruption
+     */
+    private static ClientBase.HttpResponseReader await(CompletableFuture<ClientBase.HttpResponseReader> response,
+                                                       HttpGet request, HttpGet... attempts) throws IOException {
+        try {
+            return response.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (var attempt : attempts) {
+                attempt.cancel();
+            }
+            throw new InterruptedIOException("Interrupted while waiting for " + request);
+        }
+    }
+
+    private static IOException unwrap(Throwable error) {
+        if (error instanceof UncheckedIOException) {
+            return ((UncheckedIOException) error).getCause();
+        }
+        if (error instanceof IOException) {
+            return (IOException) error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        throw new IllegalStateException(error);
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Connection resets, refused connections and timeouts are worth another attempt; interruptions, TLS and DNS
+     * failures and open circuits are not.
+     */
+    private static boolean isRetryable(IOException e) {
+        if (e instanceof CircuitOpenException || e instanceof SSLException || e instanceof UnknownHostException) {
+            return false;
+        }
+        if (e instanceof InterruptedIOException) {
+            return e instanceof SocketTimeoutException || e instanceof ConnectTimeoutException;
+        }
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    private boolean mayRetry(int attempt) {
+        if (attempt >= config.getMaxAttempts()) {
+            return false;
+        }
+        if (!withdraw()) {
+            return false;
+        }
+        retries.increment();
+        return true;
+    }
+
+    private void backOff(int attempt) throws InterruptedIOException {
+        var ceiling = Math.min(config.getRetryMaxDelay().toNanos(),
+                config.getRetryBaseDelay().toNanos() << Math.min(attempt - 1, 20));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+
+    private void deposit() {
+        var cap = config.getBudgetBurst() * TOKEN;
+        var share = (long) (config.getBudgetRatio() * TOKEN);
+        budget.updateAndGet(tokens -> Math.min(cap, tokens + share));
+    }
+
+    private boolean withdraw() {
+        var current = budget.get();
+        while (current >= TOKEN) {
+            if (budget.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+            current = budget.get();
+        }
+        budgetExhausted.increment();
+        return false;
+    }
+
+    /**
+     * Latency history and circuit of one endpoint.
+     */
+    private final class Endpoint {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long hedgeDelay = -1;
+        private volatile long hedgeDelaySamples;
+        private CircuitState state = CircuitState.CLOSED;
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean trialInFlight;
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return hedge delay in nanoseconds, recomputed every few responses; {@code -1} while the history is short
+         */
+        long hedgeDelay() {
+            var samples = latency.getCount();
+            if (samples < config.getHedgeMinSamples()) {
+                return -1;
+            }
+            if (hedgeDelay < 0 || samples - hedgeDelaySamples >= HEDGE_DELAY_REFRESH) {
+                var percentile = TimeUnit.MICROSECONDS.toNanos(latency.percentile(config.getHedgePercentile()));
+                hedgeDelay = Math.max(config.getMinHedgeDelay().toNanos(), percentile);
+                hedgeDelaySamples = samples;
+            }
+            return hedgeDelay;
+        }
+
+        CircuitState state() {
+            lock.lock();
+            try {
+                return state;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean admit() {
+            lock.lock();
+            try {
+                switch (state) {
+                    case CLOSED:
+                        return true;
+                    case OPEN:
+                        if (System.nanoTime() - openUntil < 0) {
+                            return false;
+                        }
+                        state = CircuitState.HALF_OPEN;
+                        trialInFlight = true;
+                        return true;
+                    default:
+                        if (trialInFlight) {
+                            return false;
+                        }
+                        trialInFlight = true;
+                        return true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void succeeded() {
+            lock.lock();
+            try {
+                consecutiveFailures = 0;
+                trialInFlight = false;
+                state = CircuitState.CLOSED;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void failed() {
+            lock.lock();
+            try {
+                consecutiveFailures++;
+                trialInFlight = false;
+                if (state == CircuitState.HALF_OPEN || consecutiveFailures >= config.getFailureThreshold()) {
+                    state = CircuitState.OPEN;
+                    openUntil = System.nanoTime() + config.getOpenDuration().toNanos();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.rest;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.MessageHeaders;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU cache of GET responses that carry an {@code ETag} or {@code Last-Modified} validator.
+ * Entries are keyed by URL, {@code Accept} header and a digest of the {@code Authorization} header, so
+ * anonymous and authenticated reads of the same gist never share a body. GitHub does not count
+ * {@code 304} responses against the rate limit, so revalidating is much cheaper than re-downloading.
+ */
+public final class ResponseCache {
+    private static final Set<String> FRAMING_HEADERS = Set.of("content-encoding", "content-length",
+            "transfer-encoding");
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    ResponseCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResponseCache.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    static final class Entry {
+        private final HttpResponse head;
+        private final byte[] body;
+        private final String contentType;
+        private final String etag;
+        private final String lastModified;
+
+        Entry(HttpResponse response, byte[] body, String contentType) {
+            this.head = new BasicHttpResponse(response.getCode(), response.getReasonPhrase());
+            for (var header : response.getHeaders()) {
+                // the body is kept decoded, so the headers describing its wire form no longer apply
+                if (!FRAMING_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                    this.head.addHeader(header);
+                }
+            }
+            this.body = body;
+            this.contentType = contentType;
+            this.etag = headerValue(response, HttpHeaders.ETAG);
+            this.lastModified = headerValue(response, HttpHeaders.LAST_MODIFIED);
+        }
+
+        HttpResponse getHead() {
+            return head;
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        void addValidators(HttpRequest request) {
+            if (Objects.nonNull(etag)) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            if (Objects.nonNull(lastModified)) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+
+    static boolean isCacheable(HttpResponse response) {
+        return response.containsHeader(HttpHeaders.ETAG) || response.containsHeader(HttpHeaders.LAST_MODIFIED);
+    }
+
+    static String key(ClassicHttpRequest request) {
+        return uri(request) + '\n' + headerValue(request, HttpHeaders.ACCEPT) + '\n'
+                + identity(headerValue(request, HttpHeaders.AUTHORIZATION));
+    }
+
+    static HttpGet copy(HttpGet request) {
+        var copy = new HttpGet(uri(request));
+        copy.setHeaders(request.getHeaders());
+        copy.setConfig(request.getConfig());
+        return copy;
+    }
+
+    Entry get(String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(String key, Entry entry) {
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every cached representation of the request's URL, whatever identity it was fetched with.
+     */
+    void invalidate(ClassicHttpRequest request) {
+        var prefix = uri(request) + '\n';
+        lock.lock();
+        try {
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    /**
+     * @return number of requests answered with {@code 304} and served from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of conditional-capable GETs that had to transfer a body
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String uri(ClassicHttpRequest request) {
+        try {
+            return request.getUri().toString();
+        } catch (URISyntaxException e) {
+            return request.getRequestUri();
+        }
+    }
+
+    private static String headerValue(MessageHeaders message, String name) {
+        var header = message.getFirstHeader(name);
+        return Objects.isNull(header) ? null : header.getValue();
+    }
+
+    private static String identity(String authorization) {
+        if (Objects.isNull(authorization)) {
+            return "anonymous";
+        }
+        var digest = sha256().digest(authorization.getBytes(StandardCharsets.UTF_8));
+        return hex(digest).substring(0, 16);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        var hex = new StringBuilder(bytes.length * 2);
+        for (var b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,412 @@
+package com.github.search;
+
+import com.github.models.Gist;
+import com.github.models.GistProjection;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientExecutors;
+import com.github.rest.GistBatch;
+import com.github.rest.GistPager;
+import com.github.rest.GistRequests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over gist descriptions, file names and file contents, answering term, prefix and
+ * phrase queries with gist ids.
+ * <p>
+ * Each indexed gist version gets a doc number in indexing order, and every term keeps its docs and token positions
+ * in one int array ({@link Postings}). Re-indexing or removing a gist only retires its doc number; once retired docs
+ * outnumber live ones, postings are rewritten without them, so memory follows the live gists. Queries may run
+ * concurrently with each other; changes are exclusive.
+ */
+public class GistSearch {
+    /**
+     * Position gap between description, file names and contents, so a phrase never matches across them.
+     */
+    private static final int FIELD_GAP = 1024;
+    private static final int MIN_RETIRED_TO_COMPACT = 1024;
+    private final int maxIndexedChars;
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Integer> docs = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private String[] ids = new String[64];
+    private int nextDoc;
+    private int retired;
+
+    public GistSearch() {
+        this(1024 * 1024);
+    }
+
+    /**
+     * @param maxIndexedChars how much of each file content is indexed
+     */
+    public GistSearch(int maxIndexedChars) {
+        this.maxIndexedChars = maxIndexedChars;
+    }
+
+    /**
+     * Indexes every gist of {@code owner}. Listings carry no file contents, so each gist is read in full with
+     * {@code parallelism} requests in flight.
+     */
+    public static GistSearch fromAccount(ClientBase client, GistRequests requests, String owner, int parallelism)
+            throws IOException {
+        List<String> gistIds;
+        try (var gists = new GistPager(client, requests, ClientExecutors.shared(), GistProjection.IDS)
+                .userGists(owner, Map.of("per_page", "100"))) {
+            gistIds = gists.map(Gist::getId).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        var result = new GistBatch(client, requests, parallelism).getAll(gistIds);
+        // 404: deleted after it was listed
+        var failures = result.getFailures().stream()
+                .filter(item -> item.getStatus() != 404)
+                .collect(Collectors.toList());
+        if (!failures.isEmpty()) {
+            throw new IOException("Gists of " + owner + " could not be read: " + failures);
+        }
+        var search = new GistSearch();
+        search.addAll(result.getGists());
+        return search;
+    }
+
+    /**
+     * Indexes the gist, replacing the previous version of it.
+     */
+    public void add(Gist gist) {
+        var positions = tokenize(gist);
+        lock.writeLock().lock();
+        try {
+            retire(gist.getId());
+            var doc = nextDoc++;
+            if (doc == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[doc] = gist.getId();
+            docs.put(gist.getId(), doc);
+            live.set(doc);
+            positions.forEach((term, termPositions) -> terms.computeIfAbsent(term, t -> new Postings())
+                    .add(doc, termPositions));
+            compactIfMostlyRetired();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(Collection<Gist> gists) {
+        gists.forEach(this::add);
+    }
+
+    /**
+     * @return {@code false} if the gist was not indexed
+     */
+    public boolean remove(String gistId) {
+        lock.writeLock().lock();
+        try {
+            var removed = retire(gistId);
+            compactIfMostlyRetired();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of indexed gists
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return gists containing the word; a word the tokenizer splits, like {@code hello_world}, is a phrase
+     */
+    public List<String> term(String word) {
+        lock.readLock().lock();
+        try {
+            return toIds(termDocs(word));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return gists containing a word that starts with {@code prefix}
+     */
+    public List<String> prefix(String prefix) {
+        lock.readLock().lock();
+        try {
+            return toIds(prefixDocs(prefix));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return gists containing the words of {@code phrase} next to each other, in the same field
+     */
+    public List<String> phrase(String phrase) {
+        lock.readLock().lock();
+        try {
+            return toIds(phraseDocs(Tokenizer.tokens(phrase)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gists matching all parts of the query: plain words, {@code prefix*} words and {@code "quoted phrases"}.
+     */
+    public List<String> search(String query) {
+        var clauses = parse(query);
+        if (clauses.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int[] result = null;
+            for (var clause : clauses) {
+                var matches = clause.endsWith("*")
+                        ? prefixDocs(clause.substring(0, clause.length() - 1))
+                        : phraseDocs(Tokenizer.tokens(clause));
+                result = Objects.isNull(result) ? matches : intersect(result, matches);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+            return toIds(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<String> parse(String query) {
+        var clauses = new ArrayList<String>();
+        var quoted = query.split("\"", -1);
+        for (var i = 0; i < quoted.length; i++) {
+            if (i % 2 == 1) {
+                if (!quoted[i].isBlank()) {
+                    clauses.add(quoted[i]);
+                }
+                continue;
+            }
+            for (var word : quoted[i].trim().split("\\s+")) {
+                if (!word.isEmpty() && !word.equals("*")) {
+                    clauses.add(word);
+                }
+            }
+        }
+        return clauses;
+    }
+
+    private Map<String, IntList> tokenize(Gist gist) {
+        var positions = new HashMap<String, IntList>();
+        Tokenizer.TokenConsumer collect = (token, position) ->
+                positions.computeIfAbsent(token, t -> new IntList()).add(position);
+        var position = 0;
+        if (Objects.nonNull(gist.getDescription())) {
+            position = Tokenizer.tokenize(gist.getDescription(), position, Integer.MAX_VALUE, collect) + FIELD_GAP;
+        }
+        if (Objects.nonNull(gist.getFiles())) {
+            for (var file : gist.getFiles().entrySet()) {
+                var name = Objects.requireNonNullElse(
+                        Objects.isNull(file.getValue()) ? null : file.getValue().getFilename(), file.getKey());
+                position = Tokenizer.tokenize(name, position, Integer.MAX_VALUE, collect) + FIELD_GAP;
+                var content = Objects.isNull(file.getValue()) ? null : file.getValue().getContent();
+                if (Objects.nonNull(content)) {
+                    position = Tokenizer.tokenize(content, position, maxIndexedChars, collect) + FIELD_GAP;
+                }
+            }
+        }
+        return positions;
+    }
+
+    private boolean retire(String gistId) {
+        var doc = docs.remove(gistId);
+        if (Objects.isNull(doc)) {
+            return false;
+        }
+        live.clear(doc);
+        ids[doc] = null;
+        retired++;
+        return true;
+    }
+
+    private void compactIfMostlyRetired() {
+        if (retired >= MIN_RETIRED_TO_COMPACT && retired > docs.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumbers the live docs densely and drops the retired ones from every postings list.
+     */
+    private void compact() {
+        var newDocs = new int[nextDoc];
+        var newIds = new String[Math.max(64, Integer.highestOneBit(Math.max(1, docs.size())) * 2)];
+        var count = 0;
+        for (var doc = 0; doc < nextDoc; doc++) {
+            if (live.get(doc)) {
+                newIds[count] = ids[doc];
+                newDocs[doc] = count++;
+            } else {
+                newDocs[doc] = -1;
+            }
+        }
+        terms.values().removeIf(postings -> !postings.remap(newDocs));
+        ids = newIds;
+        nextDoc = count;
+        retired = 0;
+        live.clear();
+        live.set(0, count);
+        docs.clear();
+        for (var doc = 0; doc < count; doc++) {
+            docs.put(ids[doc], doc);
+        }
+    }
+
+    private int[] termDocs(String word) {
+        var tokens = Tokenizer.tokens(word);
+        if (tokens.size() != 1) {
+            return phraseDocs(tokens);
+        }
+        var postings = terms.get(tokens.get(0));
+        if (Objects.isNull(postings)) {
+            return new int[0];
+        }
+        var result = new IntList(postings.docCount());
+        for (var group = postings.first(); group >= 0; group = postings.next(group)) {
+            if (live.get(postings.doc(group))) {
+                result.add(postings.doc(group));
+            }
+        }
+        return toArray(result);
+    }
+
+    private int[] prefixDocs(String prefix) {
+        var tokens = Tokenizer.tokens(prefix);
+        if (tokens.size() != 1) {
+            return new int[0];
+        }
+        var start = tokens.get(0);
+        var matches = new BitSet();
+        for (var postings : terms.subMap(start, true, start + Character.MAX_VALUE, true).values()) {
+            for (var group = postings.first(); group >= 0; group = postings.next(group)) {
+                matches.set(postings.doc(group));
+            }
+        }
+        matches.and(live);
+        return matches.stream().toArray();
+    }
+
+    /**
+     * Walks the postings of all words doc by doc; in a doc that has them all, looks for the positions of the first
+     * word that the others follow one by one.
+     */
+    private int[] phraseDocs(List<String> words) {
+        if (words.isEmpty()) {
+            return new int[0];
+        }
+        if (words.size() == 1) {
+            return termDocs(words.get(0));
+        }
+        var postings = new Postings[words.size()];
+        var groups = new int[words.size()];
+        for (var i = 0; i < words.size(); i++) {
+            postings[i] = terms.get(words.get(i));
+            if (Objects.isNull(postings[i])) {
+                return new int[0];
+            }
+            groups[i] = postings[i].first();
+        }
+        var result = new IntList();
+        var target = 0;
+        while (true) {
+            for (var i = 0; i < groups.length; i++) {
+                while (groups[i] >= 0 && postings[i].doc(groups[i]) < target) {
+                    groups[i] = postings[i].next(groups[i]);
+                }
+                if (groups[i] < 0) {
+                    return toArray(result);
+                }
+                target = Math.max(target, postings[i].doc(groups[i]));
+            }
+            var aligned = true;
+            for (var i = 0; i < groups.length; i++) {
+                aligned &= postings[i].doc(groups[i]) == target;
+            }
+            if (!aligned) {
+                continue;
+            }
+            if (live.get(target) && adjacent(postings, groups)) {
+                result.add(target);
+            }
+            target++;
+        }
+    }
+
+    private static boolean adjacent(Postings[] postings, int[] groups) {
+        for (var p = 0; p < postings[0].positionCount(groups[0]); p++) {
+            var start = postings[0].position(groups[0], p);
+            var all = true;
+            for (var i = 1; i < postings.length && all; i++) {
+                all = postings[i].hasPosition(groups[i], start + i);
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        var result = new IntList(Math.min(left.length, right.length));
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result.add(left[i]);
+                i++;
+                j++;
+            }
+        }
+        return toArray(result);
+    }
+
+    private static int[] toArray(IntList list) {
+        var array = new int[list.size()];
+        for (var i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    private List<String> toIds(int[] docs) {
+        var result = new ArrayList<String>(docs.length);
+        for (var doc : docs) {
+            result.add(ids[doc]);
+        }
+        return result;
+    }
+}
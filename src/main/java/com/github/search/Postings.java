@@ -0,0 +1,94 @@
+package com.github.search;
+
+import java.util.Arrays;
+
+/**
+ * Occurrences of one term, as a single int array of {@code doc, count, position...} groups in increasing doc order.
+ * Docs are numbered in the order they are indexed, so appending keeps the order without sorting.
+ */
+final class Postings {
+    private int[] data = new int[4];
+    private int size;
+    private int docs;
+
+    void add(int doc, IntList positions) {
+        ensure(2 + positions.size());
+        data[size++] = doc;
+        data[size++] = positions.size();
+        for (var i = 0; i < positions.size(); i++) {
+            data[size++] = positions.get(i);
+        }
+        docs++;
+    }
+
+    int docCount() {
+        return docs;
+    }
+
+    /**
+     * @return offset of the first group; groups follow at {@link #next(int)}
+     */
+    int first() {
+        return size == 0 ? -1 : 0;
+    }
+
+    /**
+     * @return offset of the group after the one at {@code group}, {@code -1} at the end
+     */
+    int next(int group) {
+        var next = group + 2 + data[group + 1];
+        return next < size ? next : -1;
+    }
+
+    int doc(int group) {
+        return data[group];
+    }
+
+    /**
+     * @return whether the doc of the group at {@code group} has the term at {@code position}
+     */
+    boolean hasPosition(int group, int position) {
+        var from = group + 2;
+        return Arrays.binarySearch(data, from, from + data[group + 1], position) >= 0;
+    }
+
+    int positionCount(int group) {
+        return data[group + 1];
+    }
+
+    int position(int group, int index) {
+        return data[group + 2 + index];
+    }
+
+    /**
+     * Rewrites the postings for renumbered docs, leaving out the docs mapped to {@code -1}.
+     *
+     * @return {@code false} if no doc is left
+     */
+    boolean remap(int[] newDocs) {
+        var write = 0;
+        var kept = 0;
+        for (var group = first(); group >= 0; ) {
+            var next = next(group);
+            var length = 2 + data[group + 1];
+            var doc = newDocs[data[group]];
+            if (doc >= 0) {
+                System.arraycopy(data, group, data, write, length);
+                data[write] = doc;
+                write += length;
+                kept++;
+            }
+            group = next;
+        }
+        size = write;
+        docs = kept;
+        data = Arrays.copyOf(data, Math.max(size, 4));
+        return kept > 0;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(size + extra, data.length + (data.length >> 1)));
+        }
+    }
+}
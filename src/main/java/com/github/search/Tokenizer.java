@@ -0,0 +1,50 @@
+package com.github.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lowercase runs of letters and digits; everything else separates tokens, so
+ * {@code hello_world.py} yields {@code hello}, {@code world} and {@code py}.
+ */
+final class Tokenizer {
+    /**
+     * Longer runs (minified code, base64 blobs) are not useful search terms and are skipped.
+     */
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    interface TokenConsumer {
+        void accept(String token, int position);
+    }
+
+    /**
+     * @param maxChars how much of {@code text} to look at
+     * @return position following the last token
+     */
+    static int tokenize(String text, int position, int maxChars, TokenConsumer consumer) {
+        var end = Math.min(text.length(), maxChars);
+        var start = -1;
+        for (var i = 0; i <= end; i++) {
+            var inToken = i < end && Character.isLetterOrDigit(text.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                if (i - start <= MAX_TOKEN_LENGTH) {
+                    consumer.accept(text.substring(start, i).toLowerCase(Locale.ROOT), position++);
+                }
+                start = -1;
+            }
+        }
+        return position;
+    }
+
+    static List<String> tokens(String text) {
+        var tokens = new ArrayList<String>();
+        tokenize(text, 0, text.length(), (token, position) -> tokens.add(token));
+        return tokens;
+    }
+}
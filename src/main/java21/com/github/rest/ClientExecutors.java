@@ -0,0 +1,50 @@
+package com.github.rest;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Java 21+ variant of the executors for blocking {@link ClientBase} calls: every task runs on its own virtual
+ * thread. A virtual thread blocked on a socket read or a pool lease unmounts from its carrier, so concurrency is
+ * bounded by the callers and by the connection pool alone. The client path takes {@code ReentrantLock}s, not
+ * monitors, so blocked calls do not pin carriers.
+ * <p>
+ * {@code -Dgists.virtualThreads=false} falls back to the daemon platform threads of the Java 11 variant.
+ */
+public final class ClientExecutors {
+    private static final boolean VIRTUAL = Boolean.parseBoolean(System.getProperty("gists.virtualThreads", "true"));
+    private static final ExecutorService SHARED = newPerRequestExecutor();
+
+    private ClientExecutors() {
+    }
+
+    /**
+     * @return process-wide executor; it must not be shut down
+     */
+    public static ExecutorService shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return new executor that starts a virtual thread per task
+     */
+    public static ExecutorService newPerRequestExecutor() {
+        if (VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gist-client-", 1).factory());
+        }
+        var counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "gist-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return whether {@link #newPerRequestExecutor()} starts virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return VIRTUAL;
+    }
+}
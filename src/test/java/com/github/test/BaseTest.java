@@ -1,77 +1,110 @@
 package com.github.test;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.models.GistProjection;
+import com.github.models.GistRequest;
+import com.github.rest.BulkDeleter;
 import com.github.rest.ClientBase;
+import com.github.rest.ClientExecutors;
+import com.github.rest.ConsistencyWaiter;
+import com.github.rest.GistBatch;
+import com.github.rest.GistPager;
+import com.github.rest.GistRequests;
+import com.github.test.server.GistStandInServer;
+import com.github.test.server.SharedStandInExtension;
 import io.qameta.allure.Step;
 import org.apache.hc.core5.http.ParseException;
 import org.apache.hc.core5.http.io.entity.StringEntity;
-import org.awaitility.Awaitility;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.apache.hc.client5.http.classic.methods.*;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+/**
+ * Test classes run in parallel; each test only sees and cleans up the gists of its own {@link GistNamespace}.
+ * Tests that need the account listing to themselves take the {@link #ACCOUNT} lock exclusively.
+ */
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(SharedStandInExtension.class)
+@ResourceLock(value = BaseTest.ACCOUNT, mode = ResourceAccessMode.READ)
 public class BaseTest {
+    static final String ACCOUNT = "gists-account";
     String body = "{\"description\": \"%s\", \"files\": {\"%s\": {\"content\": \"%s\"}}";
     String fileName = "testFile";
     String content = "testContent";
     String description = "testDescription";
+    private static final String LOCAL_BASE_URL = "local";
+    private static final String LOCAL_TOKEN = "stand-in-token";
     static String baseUrl;
     static String owner;
     static String token;
-    ClientBase clientBase = new ClientBase();
+    static GistRequests requests;
+    static ConsistencyWaiter consistency;
+    static BulkDeleter bulkDeleter;
+    static final ClientBase clientBase = new ClientBase();
+    GistNamespace namespace;
 
     @BeforeAll
     public static void setUp() throws IOException {
         var properties = new Properties();
         properties.load(new FileInputStream("src/test/resources/base.properties"));
-        baseUrl = properties.getProperty("baseUrl");
+        baseUrl = System.getProperty("baseUrl", properties.getProperty("baseUrl"));
         owner = properties.getProperty("owner");
         token = System.getenv("API_TOKEN");
         if (Objects.isNull(token)) {
             token = properties.getProperty("token");
         }
+        //'-DbaseUrl=local' runs the suite against the in-memory stand-in instead of api.github.com
+        if (LOCAL_BASE_URL.equals(baseUrl)) {
+            token = LOCAL_TOKEN;
+            baseUrl = GistStandInServer.shared(owner, token).getBaseUrl();
+        }
+        requests = new GistRequests(baseUrl, token);
+        consistency = new ConsistencyWaiter(clientBase, requests, owner);
+        bulkDeleter = new BulkDeleter(clientBase, requests, owner, 10);
+    }
+
+    @BeforeEach
+    public final void openNamespace(TestInfo testInfo) {
+        namespace = new GistNamespace(testInfo.getTestClass().map(Class::getSimpleName).orElse("")
+                + "." + testInfo.getDisplayName());
     }
 
     @AfterEach
-    public final void tearDown() throws IOException, ParseException {
-        String response;
-        List<Gist> allGists;
-        do {
-            response = getUsersGists(Map.of());
-            allGists = parseGists(response);
-            for (var gist : allGists) {
-                var status = deleteGist(gist.getId());
-                assertEquals(204, status, "Gist with id '" + gist.getId() + "' wasn't deleted");
-                checkGistDeletedById(gist.getId());
-            }
-        } while (!allGists.isEmpty());
+    public final void tearDown() {
+        var result = bulkDeleter.deleteAll(namespace.getGistIds());
+        assertTrue(result.isSuccessful(), "Gists of " + namespace + " weren't deleted: " + result.getFailures());
     }
 
     public static List<Gist> parseGists(String jsonString) throws IOException {
-        var objectMapper = new ObjectMapper();
-        var listType = objectMapper.getTypeFactory().constructCollectionType(List.class, Gist.class);
-        return objectMapper.readValue(jsonString, listType);
+        return GistCodec.readGists(jsonString);
+    }
+
+    public static List<String> parseGistIds(String jsonString) throws IOException {
+        return GistCodec.readGistIds(jsonString.getBytes(StandardCharsets.UTF_8));
     }
 
     @Step("Parse gist from JSON")
     Gist getGistFromResponse(String gistJson) {
-        var mapper = new ObjectMapper();
-        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
         try {
-            return mapper.readValue(gistJson, Gist.class);
+            return GistCodec.readGist(gistJson);
         } catch (IOException e) {
             throw new IllegalArgumentException("Received gist could not be parsed: " + gistJson +
                     ". Original error: " + e.getMessage());
@@ -79,21 +112,13 @@ public class BaseTest {
     }
 
     void addHeaders(HttpUriRequestBase request) {
-        request.addHeader("Accept", "application/vnd.github.v3+json");
-        request.addHeader("Authorization", "Bearer " + token);
-        request.addHeader("X-GitHub-Api-Version", "2022-11-28");
-        request.addHeader("Content-Type", "application/json");
+        requests.addHeaders(request);
     }
 
     @Step("Check that gist is deleted by id")
     void checkGistDeletedById(String id) {
-        var getRequest = new HttpGet(baseUrl + "/" + id);
-        addHeaders(getRequest);
-        Awaitility.await().pollDelay(1, TimeUnit.SECONDS).atMost(3, TimeUnit.SECONDS).until(
-                () -> {
-                    var responseJson = clientBase.get(getRequest).getPayload();
-                    return responseJson.contains("Not Found");
-                });
+        var outcome = consistency.awaitDeleted(id);
+        assertTrue(outcome.isConverged(), "Gist " + id + " is still readable: " + outcome);
     }
 
     @Step("Create a gist")
@@ -102,7 +127,40 @@ public class BaseTest {
         var entity = new StringEntity(String.format(privateBody, description, fileName, content));
         postRequest.setEntity(entity);
         addHeaders(postRequest);
-        return clientBase.executeRequestWithEntity(postRequest).getPayload();
+        return sendCreateGist(postRequest);
+    }
+
+    @Step("Create a gist")
+    String sendCreateGist(GistRequest gist) throws IOException, ParseException {
+        return sendCreateGist(requests.create(gist));
+    }
+
+    /**
+     * Sends a prepared creation request; a created gist joins the test's namespace.
+     */
+    String sendCreateGist(HttpPost postRequest) throws IOException, ParseException {
+        var response = clientBase.executeRequestWithEntity(postRequest);
+        var payload = response.getPayload();
+        if (response.getCode() == 201) {
+            namespace.register(getGistFromResponse(payload).getId());
+        }
+        return payload;
+    }
+
+    /**
+     * Creates the gists ten at a time, or one by one with strictly increasing {@code created_at} when ordered;
+     * created gists join the test's namespace.
+     */
+    @Step("Create gists in a batch")
+    GistBatch.Result createGists(List<GistRequest> gists, GistBatch.Ordering ordering) {
+        var result = new GistBatch(clientBase, requests, 10).createAll(gists, ordering);
+        result.getGists().forEach(gist -> namespace.register(gist.getId()));
+        return result;
+    }
+
+    @Step("Update gists in a batch")
+    GistBatch.Result updateGists(Map<String, GistRequest> gists) {
+        return new GistBatch(clientBase, requests, 10).updateAll(gists);
     }
 
     @Step("Check gist default properties")
@@ -141,24 +199,15 @@ public class BaseTest {
 
     @Step("Get current user's gists")
     String getUsersGists(Map<String, String> requestParams) throws IOException, ParseException {
-        var url = baseUrl.replace("/gists", "")
-                + "/users/" + owner + "/gists";
-        var gistsPerPage = requestParams.get("per_page");
-        var page = requestParams.get("page");
-        var since = requestParams.get("since");
-        if (Objects.nonNull(page)) {
-            url = url + "?page=" + page;
-        }
-        //hardcoded options here, 'per_page' and 'since' should be provided only if 'page' is provided
-        if (Objects.nonNull(gistsPerPage)) {
-            url = url + "&per_page=" + gistsPerPage;
-        }
-        if (Objects.nonNull(since)) {
-            url = url + "&since=" + since;
+        return clientBase.get(requests.userGists(owner, requestParams)).getPayload();
+    }
+
+    @Step("Stream current user's gist ids")
+    List<String> streamUsersGistIds(Map<String, String> requestParams) {
+        try (var gists = new GistPager(clientBase, requests, ClientExecutors.shared(), GistProjection.IDS)
+                .userGists(owner, requestParams)) {
+            return gists.map(Gist::getId).collect(Collectors.toList());
         }
-        var getRequest = new HttpGet(url);
-        addHeaders(getRequest);
-        return clientBase.get(getRequest).getPayload();
     }
 
     @Step("Update gist")
@@ -169,4 +218,9 @@ public class BaseTest {
         patchRequest.setEntity(entity);
         return clientBase.executeRequestWithEntity(patchRequest).getPayload();
     }
+
+    @Step("Update gist")
+    String updateGist(String gistId, GistRequest gist) throws IOException, ParseException {
+        return clientBase.executeRequestWithEntity(requests.update(gistId, gist)).getPayload();
+    }
 }
@@ -0,0 +1,40 @@
+package com.github.test;
+
+import com.github.rest.ClientExecutors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs through failsafe in the {@code java21} profile against the packaged multi-release jar; surefire only sees
+ * target/classes, where the Java 11 variant of {@link ClientExecutors} sits.
+ */
+@Tag("integration")
+public class ClientExecutorsIT {
+
+    @DisplayName("Load the Java 21 executors from the multi-release jar")
+    @Test
+    public void useVirtualThreads() throws ExecutionException, InterruptedException, ReflectiveOperationException {
+        assertThat("Not running on JDK 21+", Runtime.version().feature(), greaterThanOrEqualTo(21));
+        var location = ClientExecutors.class.getResource("ClientExecutors.class");
+        assertNotNull(location, "ClientExecutors is not on the classpath");
+        assertThat("Not loaded from the versioned entry of the jar", location.toString(),
+                allOf(startsWith("jar:"), containsString("META-INF/versions/21/")));
+        assertTrue(ClientExecutors.usesVirtualThreads(), "Virtual threads are off");
+
+        var executor = ClientExecutors.newPerRequestExecutor();
+        try {
+            var thread = executor.submit(Thread::currentThread).get();
+            // Thread.isVirtual() is not part of the Java 11 API the tests compile against
+            assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread), "Task ran on a platform thread");
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
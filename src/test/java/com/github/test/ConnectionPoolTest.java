@@ -0,0 +1,95 @@
+package com.github.test;
+
+import com.github.models.GistCodec;
+import com.github.models.GistRequest;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import com.github.rest.GistRequests;
+import com.github.test.server.GistStandInServer;
+import org.apache.hc.core5.http.ParseException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against a stand-in of its own, whose injected delays must not slow down other test classes.
+ */
+@Tag("integration")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ConnectionPoolTest {
+    private GistStandInServer server;
+    private GistRequests requests;
+    private String gistId;
+
+    @BeforeAll
+    public void startServer() throws IOException, ParseException {
+        server = new GistStandInServer("pool", "pool-token", 0);
+        server.start();
+        requests = new GistRequests(server.getBaseUrl(), "pool-token");
+        try (var client = new ClientBase()) {
+            var payload = client.executeRequestWithEntity(requests.create(
+                    GistRequest.builder().description("pool").file("file.txt", "content").build())).getPayload();
+            gistId = GistCodec.readGist(payload).getId();
+        }
+    }
+
+    @AfterAll
+    public void stopServer() {
+        server.close();
+    }
+
+    @DisplayName("Time out waiting for a connection of an exhausted route")
+    @Test
+    public void exhaustPool() throws IOException {
+        var config = ClientConfig.builder()
+                .maxConnectionsTotal(2)
+                .maxConnectionsPerRoute(1)
+                .connectionRequestTimeout(Duration.ofMillis(300))
+                .build();
+        try (var client = new ClientBase(config)) {
+            var held = client.get(requests.get(gistId));
+            var stats = client.getPoolStats();
+            assertEquals(1, stats.getLeased(), "Held response does not lease a connection");
+            assertEquals(2, stats.getMax(), "Pool size is not applied");
+
+            var start = System.nanoTime();
+            assertThrows(IOException.class, () -> client.get(requests.get(gistId)),
+                    "Second connection to the route was leased");
+            var waited = Duration.ofNanos(System.nanoTime() - start);
+            assertThat("Lease timeout is not applied", waited.toMillis(), allOf(greaterThanOrEqualTo(250L),
+                    lessThan(5000L)));
+            assertEquals(2, client.getMetrics().snapshot().getPoolWait().getCount(), "Pool waits are not recorded");
+
+            held.close();
+            try (var response = client.get(requests.get(gistId))) {
+                assertEquals(200, response.getCode(), "Released connection is not leased again");
+            }
+            stats = client.getPoolStats();
+            assertEquals(0, stats.getLeased(), "Connection is still leased");
+            assertEquals(0, stats.getPending(), "Lease requests are still pending");
+        }
+    }
+
+    @DisplayName("Time out a response that does not arrive")
+    @Test
+    public void timeOutResponse() throws IOException {
+        var config = ClientConfig.builder().responseTimeout(Duration.ofMillis(200)).build();
+        try (var client = new ClientBase(config)) {
+            server.injectFault("GET", 1, 0, Duration.ofSeconds(2));
+            assertThrows(SocketTimeoutException.class, () -> client.get(requests.get(gistId)),
+                    "Response timeout is not applied");
+            assertEquals(0, client.getPoolStats().getLeased(), "Timed out connection is still leased");
+        }
+    }
+}
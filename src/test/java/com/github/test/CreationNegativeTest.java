@@ -36,7 +36,7 @@ public class CreationNegativeTest extends BaseTest {
         var entity = new StringEntity(String.format(body, description, fileName, content));
         var postRequest = new HttpPost(baseUrl);
         postRequest.setEntity(entity);
-        var errorJson = clientBase.executeRequestWithEntity(postRequest).getPayload();
+        var errorJson = sendCreateGist(postRequest);
         assertThat("Gist creation without token didn't return expected error", errorJson, containsString("\"message\":\"Requires authentication\""));
     }
 }
@@ -1,16 +1,35 @@
 package com.github.test;
 
+import com.github.models.GistRequest;
+import com.github.rest.BodyTooLargeException;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import com.github.rest.ClientMetrics;
+import com.github.rest.GistRequests;
+import com.github.rest.RawDownloadOptions;
+import com.github.test.server.GistStandInServer;
 import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 
 import org.apache.hc.client5.http.classic.methods.*;
-import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 @Tag("integration")
@@ -37,18 +56,96 @@ public class CreationPositiveTest extends BaseTest {
         assertTrue(gist.isPublic(), "Gist is not public");
     }
 
+    @DisplayName("Count the bytes of a streamed request body")
+    @Test
+    public void countStreamedRequestBytes() throws IOException, ParseException {
+        var gist = GistRequest.builder().description(description).file(fileName, content).build();
+        var expected = EntityUtils.toByteArray(requests.create(gist).getEntity()).length;
+        try (var client = new ClientBase()) {
+            var responseJson = client.executeRequestWithEntity(requests.create(gist)).getPayload();
+            namespace.register(getGistFromResponse(responseJson).getId());
+            assertEquals(expected, client.getMetrics().snapshot().getBytesOut(), "Sent bytes are not counted");
+        }
+    }
+
+    @DisplayName("Count the bytes of a compressed request body")
+    @Test
+    public void countCompressedRequestBytes() throws IOException, ParseException {
+        var largeContent = "compressible content ".repeat(5000);
+        var gist = GistRequest.builder().description(description).file(fileName, largeContent).build();
+        // api.github.com does not take gzip request bodies
+        try (var server = new GistStandInServer(owner, "compression-token", 0)) {
+            server.start();
+            var standInRequests = new GistRequests(server.getBaseUrl(), "compression-token");
+            var config = ClientConfig.builder().requestCompressionThreshold(1024).build();
+            try (var client = new ClientBase(config)) {
+                var response = client.executeRequestWithEntity(standInRequests.create(gist));
+                assertEquals(201, response.getCode(), "Compressed gist was not created");
+                var created = getGistFromResponse(response.getPayload());
+                assertEquals(largeContent, created.getFiles().get(fileName).getContent(), "Content is not as expected");
+                var bytesOut = client.getMetrics().snapshot().getBytesOut();
+                assertThat("Sent bytes are not counted", bytesOut, allOf(greaterThan(0L),
+                        lessThan((long) largeContent.length())));
+            }
+        }
+    }
+
+    @DisplayName("Resume a broken raw download, but not one over the size limit")
+    @Test
+    public void resumeRawDownload() throws IOException, ParseException, NoSuchAlgorithmException {
+        var rawContent = "raw content ".repeat(10000);
+        var bytes = rawContent.getBytes(StandardCharsets.UTF_8);
+        var gist = GistRequest.builder().description(description).file(fileName, rawContent).build();
+        // api.github.com cannot be made to break a transfer
+        try (var server = new GistStandInServer(owner, "resume-token", 0)) {
+            server.start();
+            var standInRequests = new GistRequests(server.getBaseUrl(), "resume-token");
+            var rawUrl = getGistFromResponse(clientBase.executeRequestWithEntity(standInRequests.create(gist))
+                    .getPayload()).getFiles().get(fileName).getRawUrl();
+            var expectedSha256 = new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(bytes));
+
+            server.injectBrokenBody("GET", 1, bytes.length / 3);
+            var buffer = ByteBuffer.allocate(bytes.length);
+            var download = clientBase.downloadRaw(standInRequests.get(URI.create(rawUrl)), buffer,
+                    RawDownloadOptions.builder().expectedSha256(String.format("%064x", expectedSha256)).build());
+            assertEquals(1, download.getResumes(), "Broken transfer was not resumed once");
+            assertEquals(bytes.length, download.getSize(), "Raw content size is not as expected");
+            assertArrayEquals(bytes, buffer.array(), "Resumed content is not as expected");
+
+            var config = ClientConfig.builder().maxResponseBodySize(bytes.length / 2).build();
+            try (var client = new ClientBase(config)) {
+                // without a Content-Length the limit is only hit while reading
+                server.injectChunkedBody("GET", 1);
+                assertThrows(BodyTooLargeException.class, () -> client.downloadRaw(
+                        standInRequests.get(URI.create(rawUrl)), ByteBuffer.allocate(bytes.length),
+                        RawDownloadOptions.defaults()), "Raw content over the body limit was downloaded");
+                var requestsSent = client.getMetrics().snapshot().getExchanges().stream()
+                        .mapToLong(ClientMetrics.ExchangeStats::getCount)
+                        .sum();
+                assertEquals(1, requestsSent, "Body over the limit was requested again");
+            }
+        }
+    }
+
     /**
      * <a href="https://docs.github.com/en/rest/gists/gists?apiVersion=2022-11-28#truncation">...</a>
      */
     @DisplayName("Check 1 MB truncation")
     @Test
-    public void create1MBGist() throws IOException, ParseException {
+    public void create1MBGist(@TempDir Path tempDir) throws IOException, ParseException, NoSuchAlgorithmException {
         var chars = new char[1024 * 1024];
         Arrays.fill(chars, 'f');
         var truncated = "test_truncated";
-        var file = new String(chars) + truncated;
+        var file = tempDir.resolve(fileName);
+        try (var writer = Files.newBufferedWriter(file)) {
+            writer.write(chars);
+            writer.write(truncated);
+        }
 
-        var responseJson = sendCreateGist(body, description, fileName, file);
+        var responseJson = sendCreateGist(GistRequest.builder()
+                .description(description)
+                .file(fileName, file)
+                .build());
         var gist = getGistFromResponse(responseJson);
         var gistFile = gist.getFiles().get(fileName);
         assertTrue(gistFile.isTruncated(), "Gist was not truncated");
@@ -57,37 +154,45 @@ public class CreationPositiveTest extends BaseTest {
         var getRequest = new HttpGet(gistFile.getRawUrl());
         addHeaders(getRequest);
 
-        responseJson = clientBase.get(getRequest).getPayload();
-        assertTrue(responseJson.endsWith(truncated), "Truncated part was lost");
+        var expectedSha256 = new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+        var download = clientBase.downloadRaw(getRequest, tempDir.resolve("raw"), RawDownloadOptions.builder()
+                .expectedSha256(String.format("%064x", expectedSha256))
+                .build());
+        assertEquals(Files.size(file), download.getSize(), "Raw content size is not as expected");
+
+        var buffer = ByteBuffer.allocateDirect(2 * 1024 * 1024);
+        clientBase.downloadRaw(getRequest, buffer, RawDownloadOptions.defaults());
+        var tail = new byte[truncated.length()];
+        buffer.flip().position(buffer.limit() - tail.length);
+        buffer.get(tail);
+        assertEquals(truncated, new String(tail, StandardCharsets.UTF_8), "Truncated part was lost");
     }
 
     @DisplayName("Check 300 files truncation")
     @Test
     public void check300FilesGist() throws IOException, ParseException {
-        var files = new StringBuilder();
+        var request = GistRequest.builder().description(description);
         for (var i = 0; i < 301; i++) {
-            files
-                    .append("\"")
-                    .append(i)
-                    .append("\": {\"content\": \"")
-                    .append(i)
-                    .append("\"}")
-                    .append(",");
+            request.file(String.valueOf(i), String.valueOf(i));
         }
-
-        var lastComma = files.toString().lastIndexOf(",");
-        var filesString = files.substring(0, lastComma);
-
-        var filesBody = "{\"description\": \"%s\", \"files\": {" + filesString + "}";
-        var postRequest = new HttpPost(baseUrl);
-        var entity = new StringEntity(String.format(filesBody, description));
-        postRequest.setEntity(entity);
-        addHeaders(postRequest);
-        var gistJson = clientBase.executeRequestWithEntity(postRequest).getPayload();
+        var gistJson = sendCreateGist(request.build());
         var gist = getGistFromResponse(gistJson);
         assertTrue(gist.isTruncated(), "Gist is not truncated");
     }
 
+    @DisplayName("Create a gist with content that needs escaping")
+    @Test
+    public void createGistWithEscapedContent() throws IOException, ParseException {
+        var escaped = "line \"one\"\n\tline two \\ ünïcode";
+        var responseJson = sendCreateGist(GistRequest.builder()
+                .description(description)
+                .isPublic(false)
+                .file(fileName, escaped)
+                .build());
+        var gist = getGistFromResponse(responseJson);
+        checkGistDefaultState(fileName, escaped, description, gist);
+    }
+
     @DisplayName("Create a gist without description")
     @Test
     public void checkWithoutDescription() throws IOException, ParseException {
@@ -0,0 +1,63 @@
+package com.github.test;
+
+import com.github.models.Gist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Gists owned by one test of one suite run. The GitHub API has no field to tag a gist with, and both
+ * description and files are asserted on, so a gist joins the namespace by id when the test creates it.
+ * Listings are filtered down to the namespace and cleanup deletes only its gists, which lets tests run in
+ * parallel on the same account.
+ */
+class GistNamespace {
+    static final String RUN_ID = UUID.randomUUID().toString().substring(0, 8);
+    private final String testId;
+    private final Set<String> gistIds = ConcurrentHashMap.newKeySet();
+
+    GistNamespace(String testId) {
+        this.testId = testId;
+    }
+
+    String getName() {
+        return RUN_ID + "/" + testId;
+    }
+
+    void register(String gistId) {
+        if (Objects.nonNull(gistId)) {
+            gistIds.add(gistId);
+        }
+    }
+
+    boolean owns(Gist gist) {
+        return gistIds.contains(gist.getId());
+    }
+
+    List<Gist> filter(Collection<Gist> gists) {
+        return gists.stream().filter(this::owns).collect(Collectors.toList());
+    }
+
+    /**
+     * @return how many of the listed gist ids belong to the namespace
+     */
+    int count(Collection<String> listedIds) {
+        return (int) listedIds.stream().filter(gistIds::contains).count();
+    }
+
+    Collection<String> getGistIds() {
+        return Collections.unmodifiableList(new ArrayList<>(gistIds));
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
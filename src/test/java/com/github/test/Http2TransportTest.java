@@ -0,0 +1,138 @@
+package com.github.test;
+
+import com.github.models.GistCodec;
+import com.github.models.GistRequest;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import com.github.rest.GistRequests;
+import com.github.rest.RawDownloadOptions;
+import com.github.test.server.GistStandInServer;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against an h2c stand-in of its own, so requests are actually multiplexed over HTTP/2. Negotiating h2 through
+ * TLS ALPN is left to runs against api.github.com, see {@code ReadOperationTest#readGistHttp2}.
+ */
+@Tag("integration")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class Http2TransportTest {
+    private static final String TOKEN = "h2-token";
+    private static final String FILE_NAME = "file.txt";
+    private final String largeContent = "content streamed over HTTP/2 ".repeat(20000);
+    private GistStandInServer server;
+    private GistRequests requests;
+    private String gistId;
+    private String rawUrl;
+
+    @BeforeAll
+    public void startServer() throws IOException, ParseException {
+        server = new GistStandInServer("h2", TOKEN, 0, true);
+        server.start();
+        requests = new GistRequests(server.getBaseUrl(), TOKEN);
+        try (var client = client(ClientConfig.builder())) {
+            var gist = GistCodec.readGist(client.executeRequestWithEntity(requests.create(GistRequest.builder()
+                    .description("h2")
+                    .file(FILE_NAME, largeContent)
+                    .build())).getPayload());
+            gistId = gist.getId();
+            rawUrl = gist.getFiles().get(FILE_NAME).getRawUrl();
+        }
+    }
+
+    @AfterAll
+    public void stopServer() {
+        server.close();
+    }
+
+    private static ClientBase client(ClientConfig.ClientConfigBuilder config) {
+        return new ClientBase(config.httpVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2).build());
+    }
+
+    @DisplayName("Read a gist over HTTP/2")
+    @Test
+    public void readGist() throws IOException, ParseException {
+        try (var client = client(ClientConfig.builder());
+             var response = client.get(requests.get(gistId))) {
+            assertEquals(200, response.getCode(), "HTTP/2 request failed");
+            assertEquals(HttpVersion.HTTP_2, response.getVersion(), "Response did not arrive over HTTP/2");
+            assertThat("Created gist is not found", response.getPayload(), containsString(gistId));
+        }
+    }
+
+    @DisplayName("Send a compressed request body over HTTP/2")
+    @Test
+    public void sendCompressedBody() throws IOException, ParseException {
+        try (var client = client(ClientConfig.builder().requestCompressionThreshold(1))) {
+            var response = client.executeRequestWithEntity(requests.create(GistRequest.builder()
+                    .description("h2 compressed")
+                    .file(FILE_NAME, largeContent)
+                    .build()));
+            assertEquals(201, response.getCode(), "Compressed gist was not created");
+            assertEquals(HttpVersion.HTTP_2, response.getVersion(), "Response did not arrive over HTTP/2");
+            var created = GistCodec.readGist(response.getPayload());
+            assertEquals(largeContent, created.getFiles().get(FILE_NAME).getContent(), "Content is not as expected");
+            var bytesOut = client.getMetrics().snapshot().getBytesOut();
+            assertThat("Sent bytes are not counted", bytesOut, allOf(greaterThan(0L),
+                    lessThan((long) largeContent.length())));
+        }
+    }
+
+    @DisplayName("Stop reading an HTTP/2 body at the size limit")
+    @Test
+    public void limitStreamedBody() throws IOException, ParseException {
+        var config = ClientConfig.builder().maxResponseBodySize(largeContent.length() / 4).contentCompression(false);
+        try (var client = client(config)) {
+            var response = client.get(requests.get(gistId));
+            try (var stream = response.getStream()) {
+                var error = assertThrows(IOException.class, stream::readAllBytes, "Body over the limit was read");
+                assertThat("Unexpected failure", error.getMessage(), containsString("exceeds the limit"));
+            }
+            assertThat("Body was read past the limit", response.getWireBytes(), lessThan((long) largeContent.length()));
+
+            // only the stream is reset, the connection carries on
+            try (var next = client.get(requests.get(gistId + "-missing"))) {
+                assertEquals(404, next.getCode(), "Request after a reset stream failed");
+            }
+        }
+    }
+
+    @DisplayName("Download raw content over HTTP/2")
+    @Test
+    public void downloadRaw() throws IOException, NoSuchAlgorithmException {
+        var bytes = largeContent.getBytes(StandardCharsets.UTF_8);
+        var expectedSha256 = new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(bytes));
+        try (var client = client(ClientConfig.builder())) {
+            var buffer = ByteBuffer.allocate(bytes.length);
+            var download = client.downloadRaw(new HttpGet(rawUrl), buffer, RawDownloadOptions.builder()
+                    .expectedSha256(String.format("%064x", expectedSha256))
+                    .build());
+            assertEquals(bytes.length, download.getSize(), "Raw content size is not as expected");
+
+            var limited = RawDownloadOptions.builder().maxSize(bytes.length / 2).build();
+            var error = assertThrows(IOException.class,
+                    () -> client.downloadRaw(new HttpGet(rawUrl), ByteBuffer.allocate(bytes.length), limited),
+                    "Raw content over the limit was downloaded");
+            assertThat("Unexpected failure", error.getMessage(), containsString("exceeds the limit"));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.test;
+
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import com.github.test.load.LoadGenerator;
+import com.github.test.load.LoadProfile;
+import io.qameta.allure.Allure;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Sustained load at a constant arrival rate, see {@link LoadProfile#fromSystemProperties()} for the knobs.
+ * Runs only with {@code mvn -Pload test}, against the API or, with {@code -DbaseUrl=local}, the stand-in.
+ */
+@Tag("load")
+public class LoadTest extends BaseTest {
+
+    @DisplayName("Sustain the configured gist workload")
+    @Test
+    @ResourceLock(value = ACCOUNT, mode = ResourceAccessMode.READ_WRITE)
+    public void sustainWorkload() throws IOException {
+        var profile = LoadProfile.fromSystemProperties();
+        var config = ClientConfig.builder()
+                .maxConnectionsTotal(profile.getMaxInFlight())
+                .maxConnectionsPerRoute(profile.getMaxInFlight())
+                .build();
+        try (var client = new ClientBase(config)) {
+            var report = new LoadGenerator(client, requests, owner, profile, namespace::register).run();
+            report.write(profile.getReport());
+            var summary = report.summary();
+            Allure.addAttachment("Load summary", summary);
+            Allure.addAttachment("Load report", "application/json", report.toJson(), ".json");
+            assertThat("Error rate is too high", report.getErrorRate(), lessThanOrEqualTo(profile.getMaxErrorRate()));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.test;
+
+import com.github.mirror.GistMirror;
+import com.github.mirror.MirrorOptions;
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.models.GistRequest;
+import com.github.rest.ClientBase;
+import com.github.rest.GistRequests;
+import com.github.test.server.GistStandInServer;
+import org.apache.hc.core5.http.ParseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reopens a {@link GistMirror} whose files were damaged the way a crash leaves them. Each test mirrors two gists,
+ * then updates the second one, so the last log record is its second version. The stand-in is per test, so a
+ * reconciliation only sees these two gists.
+ */
+@Tag("integration")
+public class MirrorRecoveryTest {
+    private static final String OWNER = "recovery";
+    private static final String TOKEN = "recovery-token";
+    private static final String FILE_NAME = "file.txt";
+    private static final int INDEX_LOG_LENGTH = 16;
+    private static final int RECORD_CRC = Integer.BYTES;
+    private final MirrorOptions options = MirrorOptions.builder().reconcileInterval(Duration.ofDays(1)).build();
+    private GistStandInServer server;
+    private GistRequests requests;
+    private ClientBase client;
+    private Path directory;
+    private String first;
+    private String second;
+    /**
+     * Log size before the update, i.e. the offset of the second version of the second gist.
+     */
+    private long updateOffset;
+    private Path savedIndex;
+
+    @BeforeEach
+    public void mirrorGists(@TempDir Path tempDir) throws IOException, ParseException {
+        server = new GistStandInServer(OWNER, TOKEN, 0);
+        server.start();
+        requests = new GistRequests(server.getBaseUrl(), TOKEN);
+        client = new ClientBase();
+        directory = tempDir.resolve("mirror");
+        first = create("first");
+        second = create("second");
+        try (var mirror = GistMirror.open(directory, client, requests, OWNER, options)) {
+            mirror.reconcile();
+        }
+        updateOffset = Files.size(log());
+        savedIndex = Files.copy(index(), tempDir.resolve("saved.idx"));
+
+        var update = GistRequest.builder().description("second updated").file(FILE_NAME, "updated").build();
+        try (var response = client.executeRequestWithEntity(requests.update(second, update))) {
+            assertEquals(200, response.getCode(), "Gist was not updated");
+        }
+        try (var mirror = GistMirror.open(directory, client, requests, OWNER, options)) {
+            assertEquals(1, mirror.reconcile().getStored(), "Update was not mirrored");
+        }
+        assertThat("Update was not appended", Files.size(log()), greaterThan(updateOffset));
+    }
+
+    @AfterEach
+    public void stopServer() {
+        client.close();
+        server.close();
+    }
+
+    private String create(String description) throws IOException, ParseException {
+        var gist = GistRequest.builder().description(description).file(FILE_NAME, description + " content").build();
+        return GistCodec.readGist(client.executeRequestWithEntity(requests.create(gist)).getPayload()).getId();
+    }
+
+    private Path log() {
+        return directory.resolve("gists.log");
+    }
+
+    private Path index() {
+        return directory.resolve("gists.idx");
+    }
+
+    private static void write(Path file, long position, ByteBuffer bytes) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+
+    private static long readLong(Path file, long position) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.allocate(Long.BYTES);
+            channel.read(buffer, position);
+            return buffer.flip().getLong();
+        }
+    }
+
+    /**
+     * Reopens the mirror and checks both gists and the listing.
+     */
+    private void assertReopened(String secondDescription) throws IOException {
+        try (var mirror = GistMirror.open(directory, client, requests, OWNER, options)) {
+            assertEquals("first", mirror.get(first).getDescription(), "First gist is not as expected");
+            assertEquals(secondDescription, mirror.get(second).getDescription(), "Second gist is not as expected");
+            var listed = mirror.list().stream().collect(Collectors.toMap(Gist::getId, Gist::getDescription));
+            assertEquals(2, listed.size(), "Unexpected number of listed gists");
+            assertEquals(secondDescription, listed.get(second), "Listed version is not as expected");
+        }
+    }
+
+    @DisplayName("Cut off a record torn in the middle")
+    @Test
+    public void cutTornRecord() throws IOException {
+        try (var channel = FileChannel.open(log(), StandardOpenOption.WRITE)) {
+            channel.truncate((updateOffset + Files.size(log())) / 2);
+        }
+        assertReopened("second");
+        assertEquals(updateOffset, Files.size(log()), "Torn record was not cut off");
+    }
+
+    @DisplayName("Cut off a record that fails its checksum")
+    @Test
+    public void cutCorruptRecord() throws IOException {
+        write(log(), updateOffset + RECORD_CRC, ByteBuffer.allocate(Integer.BYTES).putInt(0, 0xBADC0DE));
+        // the index update did not reach the disk, its slot for the gist may have
+        write(index(), INDEX_LOG_LENGTH, ByteBuffer.allocate(Long.BYTES).putLong(0, updateOffset));
+        assertReopened("second");
+        assertEquals(updateOffset, Files.size(log()), "Corrupt record was not cut off");
+    }
+
+    @DisplayName("Rebuild a missing index from the log")
+    @Test
+    public void rebuildMissingIndex() throws IOException {
+        Files.delete(index());
+        assertReopened("second updated");
+        assertEquals(Files.size(log()), readLong(index(), INDEX_LOG_LENGTH), "Index does not cover the log");
+    }
+
+    @DisplayName("Rebuild an index that is ahead of its log")
+    @Test
+    public void rebuildIndexAheadOfLog() throws IOException {
+        var logLength = Files.size(log());
+        write(index(), INDEX_LOG_LENGTH, ByteBuffer.allocate(Long.BYTES).putLong(0, logLength + 1000));
+        assertReopened("second updated");
+        assertEquals(logLength, readLong(index(), INDEX_LOG_LENGTH), "Index length was not reset to the log");
+    }
+
+    @DisplayName("Replay the records appended after the last index update")
+    @Test
+    public void replayLogTail() throws IOException {
+        // the index as it was before the update was appended
+        Files.copy(savedIndex, index(), StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(updateOffset, readLong(index(), INDEX_LOG_LENGTH), "Saved index covers the update");
+        assertReopened("second updated");
+        assertEquals(Files.size(log()), readLong(index(), INDEX_LOG_LENGTH), "Index does not cover the log");
+    }
+}
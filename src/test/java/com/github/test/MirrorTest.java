@@ -0,0 +1,60 @@
+package com.github.test;
+
+import com.github.mirror.GistMirror;
+import com.github.mirror.MirrorOptions;
+import com.github.models.GistRequest;
+import org.apache.hc.core5.http.ParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("integration")
+public class MirrorTest extends BaseTest {
+
+    @DisplayName("Mirror gists incrementally and reopen the mirror")
+    @Test
+    @ResourceLock(value = ACCOUNT, mode = ResourceAccessMode.READ_WRITE)
+    public void mirrorGists(@TempDir Path directory) throws IOException, ParseException {
+        var first = getGistFromResponse(sendCreateGist(body, description, fileName, content)).getId();
+        var second = getGistFromResponse(sendCreateGist(body, description, fileName, content)).getId();
+        var options = MirrorOptions.builder().reconcileInterval(Duration.ofDays(1)).build();
+
+        try (var mirror = GistMirror.open(directory, clientBase, requests, owner, options)) {
+            var result = mirror.refresh();
+            assertTrue(result.isReconciled(), "First refresh did not list the whole account");
+            checkGistDefaultState(fileName, content, description, mirror.get(first));
+            assertNotNull(mirror.get(second), "Second gist is not mirrored");
+
+            mirror.refresh();
+            assertTrue(mirror.refresh().isNotModified(), "Unchanged listing was not answered with 304");
+
+            updateGist(first, GistRequest.builder().description("updated").file(fileName, "updated content").build());
+            result = mirror.refresh();
+            assertFalse(result.isNotModified(), "Update was not noticed");
+            assertEquals(1, result.getStored(), "Unexpected number of fetched gists");
+            assertEquals("updated content", mirror.get(first).getFiles().get(fileName).getContent(),
+                    "Updated content is not mirrored");
+
+            assertEquals(204, deleteGist(second), "Gist was not deleted");
+            result = mirror.reconcile();
+            assertEquals(1, result.getDeleted(), "Deletion was not found by reconciliation");
+            assertNull(mirror.get(second), "Deleted gist is still mirrored");
+        }
+
+        try (var mirror = GistMirror.open(directory, clientBase, requests, owner, options)) {
+            assertEquals("updated", mirror.get(first).getDescription(), "Reopened mirror lost the update");
+            assertNull(mirror.get(second), "Reopened mirror brought back a deleted gist");
+            assertTrue(mirror.list().stream().anyMatch(gist -> gist.getId().equals(first)),
+                    "Reopened mirror does not list the gist");
+        }
+    }
+}
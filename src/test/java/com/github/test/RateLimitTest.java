@@ -0,0 +1,149 @@
+package com.github.test;
+
+import com.github.models.GistCodec;
+import com.github.models.GistRequest;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import com.github.rest.GistRequests;
+import com.github.rest.RateLimitConfig;
+import com.github.test.server.GistStandInServer;
+import org.apache.hc.core5.http.ParseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against a stand-in of its own per test, as the rate limits it turns on would throttle every other test.
+ */
+@Tag("integration")
+public class RateLimitTest {
+    private static final String TOKEN = "rate-limit-token";
+    private GistStandInServer server;
+    private GistRequests requests;
+    private String gistId;
+
+    @BeforeEach
+    public void startServer() throws IOException, ParseException {
+        server = new GistStandInServer("rate-limit", TOKEN, 0);
+        server.start();
+        requests = new GistRequests(server.getBaseUrl(), TOKEN);
+        try (var client = new ClientBase()) {
+            gistId = GistCodec.readGist(client.executeRequestWithEntity(requests.create(gist())).getPayload()).getId();
+        }
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private static GistRequest gist() {
+        return GistRequest.builder().description("rate limit").file("file.txt", "content").build();
+    }
+
+    private static ClientBase client(RateLimitConfig.RateLimitConfigBuilder rateLimit) {
+        return new ClientBase(ClientConfig.builder().rateLimit(rateLimit.build()).build());
+    }
+
+    private int get(ClientBase client) throws IOException {
+        try (var response = client.get(requests.get(gistId))) {
+            return response.getCode();
+        }
+    }
+
+    @DisplayName("Wait for the reset once the primary budget is used up")
+    @Test
+    public void waitForReset() throws IOException {
+        server.setRateLimit(3, Duration.ofSeconds(1));
+        try (var unscheduled = new ClientBase()) {
+            for (var i = 0; i < 3; i++) {
+                assertEquals(200, get(unscheduled), "Request within the budget failed");
+            }
+            assertEquals(403, get(unscheduled), "Stand-in does not enforce its rate limit");
+        }
+
+        server.setRateLimit(3, Duration.ofSeconds(1));
+        try (var client = client(RateLimitConfig.builder())) {
+            for (var i = 0; i < 3; i++) {
+                assertEquals(200, get(client), "Request within the budget failed");
+            }
+            var scheduler = client.getRateLimitScheduler();
+            assertEquals(0, scheduler.getRemaining(), "Remaining budget is not taken from the headers");
+
+            var start = System.nanoTime();
+            assertEquals(200, get(client), "Request after the reset failed");
+            var waited = Duration.ofNanos(System.nanoTime() - start);
+            assertThat("Request did not wait for the reset", waited.toMillis(), greaterThanOrEqualTo(500L));
+            assertEquals(0, scheduler.getThrottledCount(), "Scheduler ran into the rate limit");
+            assertEquals(2, scheduler.getRemaining(), "Budget of the new window is not picked up");
+        }
+    }
+
+    @DisplayName("Back off on a secondary rate limit and recover")
+    @Test
+    public void backOffAndRecover() throws IOException {
+        try (var client = client(RateLimitConfig.builder().initialConcurrency(8))) {
+            var scheduler = client.getRateLimitScheduler();
+            server.injectSecondaryLimit("GET", 1, 429, 1);
+            assertEquals(429, get(client), "Secondary rate limit is not passed on");
+            assertEquals(1, scheduler.getThrottledCount(), "Rate-limited response is not counted");
+            assertEquals(4.0, scheduler.getConcurrencyLimit(), "Concurrency was not halved");
+
+            var start = System.nanoTime();
+            assertEquals(200, get(client), "Request after the pause failed");
+            var waited = Duration.ofNanos(System.nanoTime() - start);
+            assertThat("Retry-After was not respected", waited.toMillis(), greaterThanOrEqualTo(800L));
+
+            for (var i = 0; i < 8; i++) {
+                assertEquals(200, get(client), "Request after the pause failed");
+            }
+            assertThat("Concurrency did not recover", scheduler.getConcurrencyLimit(), greaterThan(5.0));
+
+            // a 403 without Retry-After or an exhausted budget is a permission error
+            server.injectFault("GET", 1, 403, Duration.ZERO);
+            assertEquals(403, get(client), "Injected error is not returned");
+            assertEquals(1, scheduler.getThrottledCount(), "Permission error was taken for a rate limit");
+        }
+    }
+
+    @DisplayName("Space out mutations without holding back reads")
+    @Test
+    public void spaceMutations() throws IOException, InterruptedException, ExecutionException {
+        var interval = Duration.ofMillis(500);
+        try (var client = client(RateLimitConfig.builder().maxConcurrentMutations(1).mutationInterval(interval))) {
+            var start = System.nanoTime();
+            var creates = new ArrayList<CompletableFuture<Integer>>();
+            for (var i = 0; i < 3; i++) {
+                creates.add(CompletableFuture.supplyAsync(() -> {
+                    try (var response = client.executeRequestWithEntity(requests.create(gist()))) {
+                        return response.getCode();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+            var readStart = System.nanoTime();
+            assertEquals(200, get(client), "Read next to mutations failed");
+            var read = Duration.ofNanos(System.nanoTime() - readStart);
+            assertThat("Read waited in the mutation lane", read, lessThan(interval));
+
+            for (var create : creates) {
+                assertEquals(201, create.get(), "Spaced out creation failed");
+            }
+            var elapsed = Duration.ofNanos(System.nanoTime() - start);
+            assertThat("Mutations were not spaced out", elapsed, greaterThanOrEqualTo(interval.multipliedBy(2)));
+        }
+    }
+}
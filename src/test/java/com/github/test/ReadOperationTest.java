@@ -1,18 +1,45 @@
 package com.github.test;
 
+import com.github.models.Gist;
+import com.github.models.GistCodec;
+import com.github.models.GistProjection;
+import com.github.models.GistRequest;
+import com.github.rest.AsyncClientBase;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import com.github.rest.GistBatch;
+import com.github.rest.GistRequests;
+import com.github.test.server.GistStandInServer;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.HttpVersion;
 import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.io.IOException;
-import java.time.LocalTime;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * <a href="https://docs.github.com/en/rest/gists/gists?apiVersion=2022-11-28#get-a-gist">...</a>
@@ -45,43 +72,78 @@ public class ReadOperationTest extends BaseTest {
      */
     @DisplayName("Read current user's gists with pagination")
     @Test
+    @ResourceLock(value = ACCOUNT, mode = ResourceAccessMode.READ_WRITE)
     public void readUsersGistsTestWithPagination() throws IOException, ParseException, InterruptedException {
-        //create 30 gists
+        //create 30 gists in two halves, every gist of the second half stamped later than the first half
         var fullAmount = 30;
-        var timestamp = LocalTime.now().toString();
-        for (var i = 1; i < fullAmount; i++) {
-            var gistResponse = sendCreateGist(body, description, fileName, content);
-            if (i == 15) {
-                Thread.sleep(100);
-                //remember timestamp
-                gistResponse = sendCreateGist(body, description, fileName, content);
-                var middleGist = getGistFromResponse(gistResponse);
-                timestamp = middleGist.getCreatedAt();
-            }
+        var gists = new ArrayList<GistRequest>();
+        for (var i = 0; i < fullAmount / 2; i++) {
+            gists.add(GistRequest.builder().description(description).file(fileName, content).build());
         }
+        var older = createGists(gists, GistBatch.Ordering.UNORDERED);
+        assertTrue(older.isSuccessful(), "Gists weren't created: " + older);
+        //wait until the server can no longer stamp a gist like the first half: a second on api.github.com
+        Thread.sleep(GistBatch.timestampResolution(older.getGists().get(0).getCreatedAt()).toMillis());
+        var newer = createGists(gists, GistBatch.Ordering.UNORDERED);
+        assertTrue(newer.isSuccessful(), "Gists weren't created: " + newer);
+        //remember timestamp of the earliest gist of the second half
+        var timestamp = newer.getGists().stream()
+                .map(Gist::getCreatedAt)
+                .min(Comparator.comparing(Instant::parse))
+                .orElseThrow();
 
         //check 30 is default
         var response = getUsersGists(Map.of());
-        var allGists = parseGists(response);
-        assertEquals(30, allGists.size(), "30 gists per page is not default");
+        assertEquals(30, namespace.count(parseGistIds(response)), "30 gists per page is not default");
         //check 30 gists were created
         response = getUsersGists(Map.of("per_page", "100", "page", "1"));
-        allGists = parseGists(response);
-        assertEquals(fullAmount, allGists.size(), "Not 30 gists were created");
+        assertEquals(fullAmount, namespace.count(parseGistIds(response)), "Not 30 gists were created");
         //make request on 2nd page, check 0 gists
         response = getUsersGists(Map.of("page", "2"));
-        allGists = parseGists(response);
-        assertEquals(0, allGists.size(), "Second page has gists");
+        assertEquals(0, namespace.count(parseGistIds(response)), "Second page has gists");
         //check setting 10 per page + pagination
         response = getUsersGists(Map.of("per_page", "10", "page", "2"));
-        allGists = parseGists(response);
-        assertEquals(10, allGists.size(), "Second page has unexpected number of gists");
+        assertEquals(10, namespace.count(parseGistIds(response)), "Second page has unexpected number of gists");
+        //follow 'next' links through all pages of 10
+        assertEquals(fullAmount, namespace.count(streamUsersGistIds(Map.of("per_page", "10"))),
+                "Paging through all gists returned unexpected number of gists");
 
         //get timestamp of the middle gist, check result has half gists
         response = getUsersGists(Map.of("page", "1", "since", timestamp));
-        allGists = parseGists(response);
+        var sinceCount = namespace.count(parseGistIds(response));
 
-        assertThat("Filtering by timestamp returned unexpected number of gists", ((double) allGists.size()), closeTo(((double) fullAmount / 2), 2.0));
+        assertThat("Filtering by timestamp returned unexpected number of gists", ((double) sinceCount), closeTo(((double) fullAmount / 2), 2.0));
+    }
+
+    @DisplayName("Create gists in order and cut the list at any of them")
+    @Test
+    public void readSequentialGistsSince() throws IOException, ParseException {
+        var amount = 20;
+        var gists = new ArrayList<GistRequest>();
+        for (var i = 0; i < amount; i++) {
+            gists.add(GistRequest.builder().description(description + " " + i).file(fileName, content).build());
+        }
+        // the stand-in stamps milliseconds, so the batch does not wait a second between gists
+        try (var server = new GistStandInServer(owner, "sequential-token", 0)) {
+            server.start();
+            var standInRequests = new GistRequests(server.getBaseUrl(), "sequential-token");
+            var result = new GistBatch(clientBase, standInRequests, 10).createAll(gists, GistBatch.Ordering.SEQUENTIAL);
+            assertTrue(result.isSuccessful(), "Gists weren't created: " + result);
+            var created = result.getGists();
+            for (var i = 1; i < amount; i++) {
+                assertThat("Gist " + i + " is not stamped after its predecessor",
+                        Instant.parse(created.get(i).getCreatedAt()),
+                        greaterThan(Instant.parse(created.get(i - 1).getCreatedAt())));
+            }
+
+            for (var n = 0; n < amount; n++) {
+                var since = Map.of("per_page", "100", "since", created.get(n).getCreatedAt());
+                var response = clientBase.get(standInRequests.userGists(owner, since)).getPayload();
+                var expected = created.subList(n, amount).stream().map(Gist::getId).collect(Collectors.toSet());
+                assertEquals(expected, Set.copyOf(parseGistIds(response)),
+                        "Cut at gist " + n + " did not return exactly the gists from there on");
+            }
+        }
     }
 
     /**
@@ -113,6 +175,180 @@ public class ReadOperationTest extends BaseTest {
         assertThat("Created gist is not found", responseJson, containsString(gistId));
     }
 
+    @DisplayName("Read a gist with concurrent async requests")
+    @Test
+    public void readGistAsync() throws IOException, ParseException, ExecutionException, InterruptedException {
+        var responseJson = sendCreateGist(body, description, fileName, content);
+        var gistId = getGistFromResponse(responseJson).getId();
+        try (var asyncClient = new AsyncClientBase(Duration.ofSeconds(30))) {
+            var responses = new ArrayList<CompletableFuture<ClientBase.HttpResponseReader>>();
+            for (var i = 0; i < 5; i++) {
+                var getRequest = new HttpGet(baseUrl + "/" + gistId);
+                addHeaders(getRequest);
+                responses.add(asyncClient.get(getRequest));
+            }
+            for (var response : responses) {
+                var reader = response.get();
+                assertEquals(200, reader.getCode(), "Async request failed");
+                assertThat("Created gist is not found", reader.getPayload(), containsString(gistId));
+            }
+        }
+    }
+
+    @DisplayName("Read gists asynchronously with errors and a configured client")
+    @Test
+    public void readGistAsyncFailures() throws IOException, ParseException, InterruptedException {
+        var responseJson = sendCreateGist(body, description, fileName, content);
+        var gistId = getGistFromResponse(responseJson).getId();
+        try (var asyncClient = new AsyncClientBase(Duration.ofSeconds(30))) {
+            var missing = asyncClient.getGist(requests.get("not-existing-gist"));
+            var error = assertThrows(ExecutionException.class, missing::get, "Missing gist was decoded");
+            assertThat("Unexpected failure", error.getCause(), instanceOf(IOException.class));
+            assertThat("Status is not reported", error.getCause().getMessage(), containsString("404"));
+        }
+        var config = ClientConfig.builder().maxResponseBodySize(16).build();
+        try (var asyncClient = new AsyncClientBase(config, Duration.ofSeconds(30))) {
+            var limited = asyncClient.getGist(requests.get(gistId));
+            assertThrows(ExecutionException.class, limited::get, "Response size limit is not applied");
+        }
+    }
+
+    @DisplayName("Read a gist and record request metrics")
+    @Test
+    public void readGistRecordsMetrics() throws IOException, ParseException {
+        var responseJson = sendCreateGist(body, description, fileName, content);
+        var gistId = getGistFromResponse(responseJson).getId();
+        try (var client = new ClientBase()) {
+            var payload = client.get(requests.get(gistId)).getPayload();
+            var metrics = client.getMetrics().snapshot();
+            var exchange = metrics.getExchanges().stream()
+                    .filter(e -> e.getEndpoint().endsWith("/gists/{id}") && e.getStatus() == 200)
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals("GET", exchange.getMethod(), "Unexpected method of the recorded exchange");
+            assertEquals(1, exchange.getCount(), "Exchange is not counted once");
+            assertEquals(1, exchange.getLatency().getCount(), "Latency is not recorded");
+            assertEquals(payload.getBytes(StandardCharsets.UTF_8).length, metrics.getBytesIn(), "Unexpected bytes in");
+            assertEquals(1, metrics.getPoolWait().getCount(), "Pool wait is not recorded");
+            assertThat("Metrics JSON misses percentiles", client.getMetrics().toJson(), containsString("\"p999\""));
+        }
+    }
+
+    @DisplayName("Read a large gist compressed")
+    @Test
+    public void readGistCompressed() throws IOException, ParseException {
+        var largeContent = "compressible content ".repeat(5000);
+        var responseJson = sendCreateGist(body, description, fileName, largeContent);
+        var gistId = getGistFromResponse(responseJson).getId();
+        try (var client = new ClientBase()) {
+            var response = client.get(requests.get(gistId));
+            var payload = response.getPayload();
+            assertThat("Created gist is not found", payload, containsString(gistId));
+            assertEquals(payload.getBytes(StandardCharsets.UTF_8).length, response.getBodyBytes(),
+                    "Decoded body size is not as expected");
+            assertThat("Response was not compressed", response.getWireBytes(), lessThan(response.getBodyBytes()));
+            assertEquals(response.getWireBytes(), client.getMetrics().snapshot().getWireBytesIn(),
+                    "Wire bytes are not recorded");
+        }
+    }
+
+    @DisplayName("Read a gist in HTTP/2 mode")
+    @Test
+    public void readGistHttp2() throws IOException, ParseException {
+        var responseJson = sendCreateGist(body, description, fileName, content);
+        var gistId = getGistFromResponse(responseJson).getId();
+        var config = ClientConfig.builder().httpVersionPolicy(HttpVersionPolicy.NEGOTIATE).build();
+        try (var client = new ClientBase(config)) {
+            var response = client.get(requests.get(gistId));
+            assertEquals(200, response.getCode(), "HTTP/2 request failed");
+            assertThat("Created gist is not found", response.getPayload(), containsString(gistId));
+            // ALPN offers h2 over TLS only, a plain connection (the stand-in) falls back to HTTP/1.1
+            var expected = baseUrl.startsWith("https") ? HttpVersion.HTTP_2 : HttpVersion.HTTP_1_1;
+            assertEquals(expected, response.getVersion(), "Unexpected protocol version");
+        }
+    }
+
+    @DisplayName("Read gists into the compact model")
+    @Test
+    public void readCompactGists() throws IOException, ParseException {
+        var responseJson = sendCreateGist(body, description, fileName, content);
+        var gist = getGistFromResponse(responseJson);
+
+        var compact = GistCodec.readCompactGist(responseJson.getBytes(StandardCharsets.UTF_8));
+        assertEquals(gist.getId(), compact.getId(), "Compact gist id is not as expected");
+        assertEquals(description, compact.getDescription(), "Compact gist description is not as expected");
+        assertEquals(owner, compact.getOwnerLogin(), "Compact gist owner is not as expected");
+        assertEquals(Instant.parse(gist.getCreatedAt()), compact.getCreatedAt(), "Creation time is not as expected");
+        assertEquals(content, compact.getContent(fileName), "Compact gist content is not as expected");
+        assertEquals(gist.getFiles().get(fileName).getRawUrl(), compact.getRawUrl(compact.indexOf(fileName)),
+                "Raw URL is not restored");
+
+        try (var response = clientBase.get(requests.userGists(owner, Map.of("per_page", "100")));
+             var stream = response.getStream()) {
+            var listed = GistCodec.readCompactGists(stream).stream()
+                    .filter(g -> g.getId().equals(gist.getId()))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(List.of(fileName), listed.getFileNames(), "Listed file names are not as expected");
+            assertEquals(owner, listed.getOwnerLogin(), "Listed gist owner is not as expected");
+        }
+    }
+
+    @DisplayName("Read gists with a field projection")
+    @Test
+    public void readProjectedGists() throws IOException, ParseException {
+        var responseJson = sendCreateGist(body, description, fileName, content);
+        var gist = getGistFromResponse(responseJson);
+        var json = responseJson.getBytes(StandardCharsets.UTF_8);
+
+        var metadata = GistCodec.readGist(json, GistProjection.METADATA);
+        assertEquals(gist.getId(), metadata.getId(), "Projected gist id is not as expected");
+        assertEquals(description, metadata.getDescription(), "Projected gist description is not as expected");
+        assertEquals(owner, metadata.getOwner().getLogin(), "Projected gist owner is not as expected");
+        assertEquals(gist.getCreatedAt(), metadata.getCreatedAt(), "Creation time is not as expected");
+        var file = metadata.getFiles().get(fileName);
+        assertEquals(fileName, file.getFilename(), "Projected file name is not as expected");
+        assertEquals(gist.getFiles().get(fileName).getRawUrl(), file.getRawUrl(), "Projected raw URL is not as expected");
+        assertNull(file.getContent(), "File content was decoded");
+        assertNull(metadata.getUrl(), "Gist URL was decoded");
+
+        var ids = GistCodec.readGist(json, GistProjection.IDS);
+        assertEquals(gist.getId(), ids.getId(), "Projected gist id is not as expected");
+        assertNull(ids.getFiles(), "Files were decoded");
+
+        var listing = getUsersGists(Map.of("per_page", "100"));
+        var full = parseGists(listing);
+        var listedIds = parseGistIds(listing);
+        assertEquals(full.stream().map(Gist::getId).collect(Collectors.toList()), listedIds,
+                "Listed ids are not as expected");
+        assertThat("Created gist is not listed", listedIds, hasItem(gist.getId()));
+        assertEquals(full.size(), GistCodec.countGists(listing), "Listed gist count is not as expected");
+        var projected = GistCodec.readGists(listing, GistProjection.METADATA);
+        assertEquals(listedIds, projected.stream().map(Gist::getId).collect(Collectors.toList()),
+                "Projected listing ids are not as expected");
+    }
+
+    @DisplayName("Build field projections from paths")
+    @Test
+    public void buildProjections() throws IOException, ParseException {
+        var responseJson = sendCreateGist(body, description, fileName, content);
+        var json = responseJson.getBytes(StandardCharsets.UTF_8);
+
+        for (var projection : List.of(GistProjection.of("files", "files/*/filename"),
+                GistProjection.of("files/*/filename", "files"))) {
+            var file = GistCodec.readGist(json, projection).getFiles().get(fileName);
+            assertEquals(content, file.getContent(), "Path inside a selected object narrowed the selection");
+            assertEquals(fileName, file.getFilename(), "File name is not as expected");
+        }
+
+        var merged = GistCodec.readGist(json, GistProjection.of("files/" + fileName + "/content", "files/*/filename"));
+        var file = merged.getFiles().get(fileName);
+        assertEquals(content, file.getContent(), "Named path is not applied");
+        assertEquals(fileName, file.getFilename(), "Wildcard path is not applied to a named file");
+        assertNull(file.getRawUrl(), "Raw URL was decoded");
+        assertNull(merged.getDescription(), "Description was decoded");
+    }
+
     @DisplayName("Read a not existing gist")
     @Test
     public void readNotExistingGistTest() throws IOException, ParseException {
@@ -0,0 +1,150 @@
+package com.github.test;
+
+import com.github.models.GistCodec;
+import com.github.models.GistRequest;
+import com.github.rest.CircuitOpenException;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import com.github.rest.GistRequests;
+import com.github.rest.ResilienceConfig;
+import com.github.rest.ResiliencePolicy;
+import com.github.test.server.GistStandInServer;
+import org.apache.hc.core5.http.ParseException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against a stand-in of its own with injected faults, whatever {@code baseUrl} points at.
+ */
+@Tag("integration")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ResilienceTest {
+    private static final String GET_GIST = "GET /gists/{id}";
+    private GistStandInServer server;
+    private GistRequests requests;
+    private String gistId;
+
+    @BeforeAll
+    public void startServer() throws IOException, ParseException {
+        server = new GistStandInServer("resilience", "resilience-token", 0);
+        server.start();
+        requests = new GistRequests(server.getBaseUrl(), "resilience-token");
+        try (var client = new ClientBase()) {
+            var payload = client.executeRequestWithEntity(requests.create(
+                    GistRequest.builder().description("resilience").file("file.txt", "content").build())).getPayload();
+            gistId = GistCodec.readGist(payload).getId();
+        }
+    }
+
+    @AfterAll
+    public void stopServer() {
+        server.close();
+    }
+
+    private static ClientBase client(ResilienceConfig.ResilienceConfigBuilder resilience) {
+        return new ClientBase(ClientConfig.builder().resilience(resilience.retryBaseDelay(Duration.ofMillis(1)).build())
+                .build());
+    }
+
+    @DisplayName("Retry transient 5xx responses")
+    @Test
+    public void retryServerErrors() throws IOException {
+        try (var client = client(ResilienceConfig.builder())) {
+            server.injectFault("GET", 2, 502, Duration.ZERO);
+            try (var response = client.get(requests.get(gistId))) {
+                assertEquals(200, response.getCode(), "Transient errors were not retried");
+            }
+            assertEquals(2, client.getResilience().getRetries(), "Unexpected number of retries");
+        }
+    }
+
+    @DisplayName("Stop retrying once the budget is used up")
+    @Test
+    public void limitRetriesByBudget() throws IOException {
+        try (var client = client(ResilienceConfig.builder().maxAttempts(5).budgetBurst(1).budgetRatio(0))) {
+            server.injectFault("DELETE", 2, 503, Duration.ZERO);
+            assertEquals(503, client.delete(requests.delete(gistId)), "Error is not passed on without budget");
+            assertEquals(1, client.getResilience().getRetries(), "Retries exceeded the budget");
+            assertEquals(1, client.getResilience().getBudgetExhausted(), "Exhausted budget is not counted");
+        }
+    }
+
+    @DisplayName("Hedge a GET that is slower than its history")
+    @Test
+    public void hedgeSlowResponse() throws IOException {
+        try (var client = client(ResilienceConfig.builder().hedgeMinSamples(20))) {
+            for (var i = 0; i < 20; i++) {
+                client.get(requests.get(gistId)).close();
+            }
+            assertTrue(client.getResilience().getHedgeDelay(GET_GIST) > 0, "Latency history is not recorded");
+            server.injectFault("GET", 1, 0, Duration.ofSeconds(5));
+            var start = System.nanoTime();
+            try (var response = client.get(requests.get(gistId))) {
+                assertEquals(200, response.getCode(), "Hedged GET failed");
+            }
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0,
+                    "Slow response was waited for");
+            assertEquals(1, client.getResilience().getHedges(), "GET was not hedged");
+            assertEquals(1, client.getResilience().getHedgeWins(), "Hedge did not answer first");
+        }
+    }
+
+    @DisplayName("Retry when the hedge answers first with a server error")
+    @Test
+    public void retryFailedHedge() throws IOException {
+        try (var client = client(ResilienceConfig.builder().hedgeMinSamples(20))) {
+            for (var i = 0; i < 20; i++) {
+                client.get(requests.get(gistId)).close();
+            }
+            // the primary GET is held back, the hedge behind it fails
+            server.injectFault("GET", 1, 0, Duration.ofSeconds(3));
+            server.injectFault("GET", 1, 502, Duration.ZERO);
+            var request = requests.get(gistId);
+            try (var response = client.get(request)) {
+                assertEquals(200, response.getCode(), "Failed hedge was not retried");
+            }
+            var resilience = client.getResilience();
+            assertEquals(1, resilience.getHedgeWins(), "Hedge did not answer first");
+            assertEquals(1, resilience.getRetries(), "Unexpected number of retries");
+
+            try (var response = client.get(request)) {
+                assertEquals(200, response.getCode(), "Request was cancelled by the hedge");
+            }
+        }
+    }
+
+    @DisplayName("Open the circuit of a failing endpoint and close it after a trial call")
+    @Test
+    public void openCircuit() throws IOException, InterruptedException {
+        var resilience = ResilienceConfig.builder().maxAttempts(1).failureThreshold(3)
+                .openDuration(Duration.ofMillis(200)).hedgePercentile(0);
+        try (var client = client(resilience)) {
+            server.injectFault("GET", 3, 500, Duration.ZERO);
+            for (var i = 0; i < 3; i++) {
+                try (var response = client.get(requests.get(gistId))) {
+                    assertEquals(500, response.getCode(), "Injected error is not returned");
+                }
+            }
+            assertEquals(ResiliencePolicy.CircuitState.OPEN, client.getResilience().getCircuitState(GET_GIST),
+                    "Circuit is not open after consecutive failures");
+            assertThrows(CircuitOpenException.class, () -> client.get(requests.get(gistId)),
+                    "Open circuit let a call through");
+
+            Thread.sleep(300);
+            try (var response = client.get(requests.get(gistId))) {
+                assertEquals(200, response.getCode(), "Trial call failed");
+            }
+            assertEquals(ResiliencePolicy.CircuitState.CLOSED, client.getResilience().getCircuitState(GET_GIST),
+                    "Circuit is not closed after a successful trial");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.test;
+
+import com.github.models.GistRequest;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.ParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ETag revalidation through the response cache of {@link ClientBase}.
+ */
+@Tag("integration")
+public class ResponseCacheTest extends BaseTest {
+    private final ClientConfig config = ClientConfig.builder().responseCacheSize(16).build();
+
+    @DisplayName("Serve an unchanged gist from the cache after a 304")
+    @Test
+    public void revalidateGist() throws IOException, ParseException {
+        // large enough to arrive compressed, the cached copy is kept decoded
+        var largeContent = "cached content ".repeat(1000);
+        var gistId = getGistFromResponse(sendCreateGist(body, description, fileName, largeContent)).getId();
+        try (var client = new ClientBase(config)) {
+            String payload;
+            try (var response = client.get(requests.get(gistId))) {
+                assertFalse(response.isFromCache(), "First read was served from the cache");
+                payload = response.getPayload();
+            }
+            try (var response = client.get(requests.get(gistId))) {
+                assertTrue(response.isFromCache(), "Unchanged gist was downloaded again");
+                assertEquals(payload, response.getPayload(), "Cached body is not as expected");
+                assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING), "Decoded body keeps its encoding");
+                assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH), "Decoded body keeps its wire length");
+                assertNotNull(response.getHeader(HttpHeaders.ETAG), "Validator is not kept");
+            }
+            var cache = client.getResponseCache();
+            assertEquals(1, cache.getHitCount(), "Cache hit is not counted");
+            assertEquals(1, cache.getMissCount(), "Cache miss is not counted");
+        }
+    }
+
+    @DisplayName("Drop a cached gist when it is updated")
+    @Test
+    public void invalidateOnUpdate() throws IOException, ParseException {
+        var gistId = getGistFromResponse(sendCreateGist(body, description, fileName, content)).getId();
+        try (var client = new ClientBase(config)) {
+            client.get(requests.get(gistId)).close();
+            assertEquals(1, client.getResponseCache().size(), "Gist is not cached");
+
+            var update = GistRequest.builder().description("updated").file(fileName, "updated content").build();
+            try (var response = client.executeRequestWithEntity(requests.update(gistId, update))) {
+                assertEquals(200, response.getCode(), "Gist was not updated");
+            }
+            assertEquals(0, client.getResponseCache().size(), "Updated gist is still cached");
+
+            try (var response = client.get(requests.get(gistId))) {
+                assertFalse(response.isFromCache(), "Stale gist was served from the cache");
+                assertThat("Updated content is not returned", response.getPayload(), containsString("updated content"));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.test;
+
+import com.github.models.GistCodec;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientConfig;
+import org.apache.hc.core5.http.ParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streamed response bodies of {@link ClientBase}: size limit, decoding and release of the pooled connection.
+ */
+@Tag("integration")
+public class ResponseReaderTest extends BaseTest {
+    private final String largeContent = "compressible content ".repeat(5000);
+
+    @DisplayName("Stop reading a decoded body at the size limit")
+    @Test
+    public void limitStreamedBody() throws IOException, ParseException {
+        var gistId = getGistFromResponse(sendCreateGist(body, description, fileName, largeContent)).getId();
+        var config = ClientConfig.builder().maxResponseBodySize(largeContent.length() / 2).build();
+        try (var client = new ClientBase(config)) {
+            var response = client.get(requests.get(gistId));
+            // the compressed body fits the limit, so only the decoded stream can catch it
+            try (var stream = response.getStream()) {
+                var error = assertThrows(IOException.class, stream::readAllBytes, "Body over the limit was read");
+                assertThat("Unexpected failure", error.getMessage(), containsString("exceeds the limit"));
+            }
+            assertThat("Response was not compressed", response.getWireBytes(), lessThan(largeContent.length() / 2L));
+            assertEquals(0, client.getPoolStats().getLeased(), "Connection is still leased");
+        }
+    }
+
+    @DisplayName("Decode a compressed gist from the streamed body")
+    @Test
+    public void parseStreamedBody() throws IOException, ParseException {
+        var gistId = getGistFromResponse(sendCreateGist(body, description, fileName, largeContent)).getId();
+        try (var client = new ClientBase();
+             var response = client.get(requests.get(gistId))) {
+            try (var parser = response.getParser()) {
+                var gist = GistCodec.readGist(parser);
+                assertEquals(largeContent, gist.getFiles().get(fileName).getContent(), "Content is not as expected");
+            }
+            assertThat("Response was not compressed", response.getWireBytes(), lessThan(response.getBodyBytes()));
+            assertEquals(0, client.getPoolStats().getLeased(), "Connection is still leased");
+        }
+    }
+
+    @DisplayName("Release the connection when a body is only partly read")
+    @Test
+    public void releasePartlyReadBody() throws IOException, ParseException {
+        var gistId = getGistFromResponse(sendCreateGist(body, description, fileName, largeContent)).getId();
+        // a single connection, so a leaked one makes the next request time out
+        var config = ClientConfig.builder()
+                .maxConnectionsTotal(1)
+                .maxConnectionsPerRoute(1)
+                .connectionRequestTimeout(Duration.ofSeconds(2))
+                .contentCompression(false)
+                .build();
+        try (var client = new ClientBase(config)) {
+            try (var stream = client.get(requests.get(gistId)).getStream()) {
+                assertEquals(100, stream.readNBytes(100).length, "Body start was not read");
+            }
+            assertEquals(0, client.getPoolStats().getLeased(), "Partly read body kept the connection");
+
+            try (var response = client.get(requests.get(gistId))) {
+                assertEquals(200, response.getCode(), "Request after a partly read body failed");
+            }
+            assertEquals(0, client.getPoolStats().getLeased(), "Unread body kept the connection");
+
+            var payload = client.get(requests.get(gistId)).getPayload();
+            assertThat("Created gist is not found", payload, containsString(gistId));
+            assertEquals(0, client.getPoolStats().getLeased(), "Fully read body kept the connection");
+            assertEquals(1, client.getPoolStats().getAvailable(), "Fully read connection was not kept for reuse");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.test;
+
+import com.github.models.GistRequest;
+import com.github.rest.GistBatch;
+import com.github.search.GistSearch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("integration")
+public class SearchTest extends BaseTest {
+
+    @DisplayName("Search gists by term, prefix and phrase and follow updates and deletions")
+    @Test
+    @ResourceLock(value = ACCOUNT, mode = ResourceAccessMode.READ_WRITE)
+    public void searchGists() throws IOException {
+        var marker = "m" + UUID.randomUUID().toString().replace("-", "");
+        var result = createGists(List.of(
+                GistRequest.builder().description(marker + " quick brown fox")
+                        .file("notes_" + marker + ".md", "lazy dog").build(),
+                GistRequest.builder().description(marker + " brown quick fox")
+                        .file("fox.py", "print('" + marker + "quickly')").build()), GistBatch.Ordering.UNORDERED);
+        assertTrue(result.isSuccessful(), "Gists were not created: " + result.getFailures());
+        var first = result.getItems().get(0).getId();
+        var second = result.getItems().get(1).getId();
+
+        var search = GistSearch.fromAccount(clientBase, requests, owner, 10);
+        assertThat("Description term is not found in both gists", search.term(marker), containsInAnyOrder(first, second));
+        assertEquals(List.of(second), search.prefix(marker + "quick"), "Content prefix is not found");
+        assertEquals(List.of(first), search.phrase("quick brown fox"), "Phrase matched words out of order");
+        assertEquals(List.of(first), search.search(marker + " \"lazy dog\" notes*"), "Combined query failed");
+        assertTrue(search.phrase("fox notes").isEmpty(), "Phrase matched across description and file name");
+
+        var update = updateGists(Map.of(first, GistRequest.builder().description(marker + " slow red fox").build()));
+        assertTrue(update.isSuccessful(), "Gist was not updated: " + update.getFailures());
+        search.add(update.getGists().get(0));
+        assertTrue(search.phrase("quick brown fox").isEmpty(), "Previous version is still found");
+        assertEquals(List.of(first), search.phrase("red fox"), "Updated description is not found");
+
+        assertEquals(204, deleteGist(second), "Gist was not deleted");
+        assertTrue(search.remove(second), "Deleted gist was not indexed");
+        assertEquals(List.of(first), search.term(marker), "Deleted gist is still found");
+    }
+}
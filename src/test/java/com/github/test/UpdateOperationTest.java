@@ -1,5 +1,6 @@
 package com.github.test;
 
+import com.github.models.GistRequest;
 import org.apache.hc.core5.http.ParseException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
@@ -9,6 +10,8 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.containsString;
@@ -34,6 +37,56 @@ public class UpdateOperationTest extends BaseTest {
         assertEquals(gist.getOwner().getLogin(), owner, "Gist owner is not as expected");
     }
 
+    @Test
+    @DisplayName("Rename and delete files with a typed request")
+    public void renameAndDeleteFilesByUpdate() throws IOException, ParseException {
+        var responseJson = sendCreateGist(GistRequest.builder()
+                .description(description)
+                .file("first", "first content")
+                .file("second", "second content")
+                .build());
+        var gist = getGistFromResponse(responseJson);
+        responseJson = updateGist(gist.getId(), GistRequest.builder()
+                .renameFile("first", fileName, content)
+                .deleteFile("second")
+                .build());
+        gist = getGistFromResponse(responseJson);
+        assertEquals(1, gist.getFiles().size(), "Deleted file is still present");
+        checkGistDefaultState(fileName, content, description, gist);
+    }
+
+    @Test
+    @DisplayName("Update gists in a batch with a missing gist")
+    public void updateGistsInBatch() throws IOException, ParseException {
+        var first = getGistFromResponse(sendCreateGist(body, description, fileName, content)).getId();
+        var second = getGistFromResponse(sendCreateGist(body, description, fileName, content)).getId();
+        var updates = new LinkedHashMap<String, GistRequest>();
+        updates.put(first, GistRequest.builder().description("first").build());
+        updates.put("missing", GistRequest.builder().description("missing").build());
+        updates.put(second, GistRequest.builder().description("second").build());
+
+        var result = updateGists(updates);
+        var items = result.getItems();
+        assertEquals(3, items.size(), "Not every gist has a result");
+        assertEquals("first", items.get(0).getGist().getDescription(), "First gist is not updated");
+        assertEquals(404, items.get(1).getStatus(), "Missing gist is not reported");
+        assertFalse(items.get(1).isSuccessful(), "Missing gist is reported as updated");
+        assertEquals("second", items.get(2).getGist().getDescription(), "Gist after the failure is not updated");
+    }
+
+    @Test
+    @DisplayName("Wait until an update is readable and listed")
+    public void awaitUpdateConsistency() throws IOException, ParseException {
+        var gist = getGistFromResponse(sendCreateGist(body, description, fileName, content));
+        updateGist(gist.getId(), GistRequest.builder().description("consistent").build());
+
+        var read = consistency.awaitGist(gist.getId(), updated -> "consistent".equals(updated.getDescription()));
+        assertTrue(read.isConverged(), "Updated description is not readable: " + read);
+        var listed = consistency.awaitListed(List.of(gist.getId()));
+        assertTrue(listed.isConverged(), "Updated gist is not listed: " + listed);
+        assertTrue(consistency.getConvergence().getCount() >= 2, "Convergence time is not recorded");
+    }
+
     private static Stream<Arguments> params() {
         return Stream.of(
                 //description is missing but files present
@@ -0,0 +1,201 @@
+package com.github.test.load;
+
+import com.github.models.GistCodec;
+import com.github.models.GistRequest;
+import com.github.rest.ClientBase;
+import com.github.rest.ClientExecutors;
+import com.github.rest.GistBatch;
+import com.github.rest.GistRequests;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Drives a {@link LoadProfile} against the gists API in an open loop: operations start on a fixed schedule,
+ * {@code 1 / rate} apart, no matter how long earlier ones take. When the setup falls behind, late operations are
+ * sent as soon as a slot frees up and their latency still counts from the scheduled start.
+ */
+public class LoadGenerator {
+    private final ClientBase client;
+    private final GistRequests requests;
+    private final String owner;
+    private final LoadProfile profile;
+    private final Consumer<String> onCreated;
+    private final GistPool pool = new GistPool();
+    private final Map<Integer, String> contents = new ConcurrentHashMap<>();
+
+    /**
+     * @param onCreated called with the id of every gist the run creates, e.g. to delete them afterwards
+     */
+    public LoadGenerator(ClientBase client, GistRequests requests, String owner, LoadProfile profile,
+                         Consumer<String> onCreated) {
+        this.client = client;
+        this.requests = requests;
+        this.owner = owner;
+        this.profile = profile;
+        this.onCreated = onCreated;
+    }
+
+    public LoadReport run() {
+        seed();
+        var interval = (long) (TimeUnit.SECONDS.toNanos(1) / profile.getRate());
+        var arrivals = profile.getDuration().toNanos() / interval;
+        var permits = new Semaphore(profile.getMaxInFlight());
+        var executor = ClientExecutors.newPerRequestExecutor();
+        var start = System.nanoTime();
+        var report = new LoadReport(profile, requests.getBaseUrl(), start);
+        try {
+            for (long i = 0; i < arrivals; i++) {
+                var intended = start + i * interval;
+                parkUntil(intended);
+                permits.acquire();
+                report.scheduled(intended);
+                var operation = profile.getMix().next();
+                executor.execute(() -> {
+                    try {
+                        execute(operation, intended, report);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            permits.acquire(profile.getMaxInFlight());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during the load run", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return report;
+    }
+
+    private void seed() {
+        var gists = new ArrayList<GistRequest>();
+        for (var i = 0; i < profile.getSeedGists(); i++) {
+            gists.add(newGist());
+        }
+        var result = new GistBatch(client, requests, Math.min(10, profile.getMaxInFlight())).createAll(gists);
+        result.getGists().forEach(gist -> created(gist.getId()));
+    }
+
+    private void execute(Operation operation, long intended, LoadReport report) {
+        String id = null;
+        if (operation.needsGist()) {
+            id = operation == Operation.DELETE ? pool.take() : pool.pick();
+            if (Objects.isNull(id)) {
+                // nothing left to read or delete, grow the pool instead of skipping the arrival
+                operation = Operation.CREATE;
+            }
+        }
+        var sent = System.nanoTime();
+        int status;
+        try {
+            status = send(operation, id);
+        } catch (IOException | RuntimeException e) {
+            status = 0;
+        }
+        report.completed(operation, intended, sent, System.nanoTime(), operation.isExpected(status));
+    }
+
+    private int send(Operation operation, String id) throws IOException {
+        switch (operation) {
+            case CREATE:
+                try (var response = client.executeRequestWithEntity(requests.create(newGist()))) {
+                    if (response.getCode() == 201) {
+                        created(GistCodec.readGist(response.getStream()).getId());
+                    }
+                    return response.getCode();
+                }
+            case GET:
+                return drain(client.get(requests.get(id)));
+            case LIST:
+                return drain(client.get(requests.userGists(owner, Map.of("per_page", "30"))));
+            case UPDATE:
+                return drain(client.executeRequestWithEntity(requests.update(id, GistRequest.builder()
+                        .description("load update " + System.nanoTime())
+                        .build())));
+            case DELETE:
+                return client.delete(requests.delete(id));
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+    }
+
+    private static int drain(ClientBase.HttpResponseReader response) throws IOException {
+        try (response; var stream = response.getStream()) {
+            stream.transferTo(OutputStream.nullOutputStream());
+            return response.getCode();
+        }
+    }
+
+    private void created(String id) {
+        pool.add(id);
+        onCreated.accept(id);
+    }
+
+    private GistRequest newGist() {
+        var size = profile.getFileSizes().next();
+        return GistRequest.builder()
+                .description("load test gist")
+                .file("load.txt", contents.computeIfAbsent(size, "x"::repeat))
+                .build();
+    }
+
+    private static void parkUntil(long deadline) {
+        for (var left = deadline - System.nanoTime(); left > 0; left = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(left);
+        }
+    }
+
+    /**
+     * Ids of live gists with random pick and random removal in constant time.
+     */
+    private static final class GistPool {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayList<String> ids = new ArrayList<>();
+
+        void add(String id) {
+            lock.lock();
+            try {
+                ids.add(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        String pick() {
+            lock.lock();
+            try {
+                return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        String take() {
+            lock.lock();
+            try {
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                var index = ThreadLocalRandom.current().nextInt(ids.size());
+                var id = ids.get(index);
+                ids.set(index, ids.get(ids.size() - 1));
+                ids.remove(ids.size() - 1);
+                return id;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
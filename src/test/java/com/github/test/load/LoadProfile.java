@@ -0,0 +1,85 @@
+package com.github.test.load;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Workload of a load run: a constant arrival rate kept for {@code duration}, of which the first {@code warmup}
+ * is not measured, and the mix of operations and file sizes the arrivals are drawn from.
+ */
+@Getter
+@Builder
+@ToString
+public class LoadProfile {
+    /**
+     * Operations started per second, whether or not earlier ones have completed.
+     */
+    @Builder.Default
+    private final double rate = 20;
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration warmup = Duration.ofSeconds(5);
+    @Builder.Default
+    private final Weighted<Operation> mix = Weighted.parse("create=10,get=50,list=15,update=15,delete=10",
+            Operation::parse);
+    /**
+     * Size in bytes of the single file of a created gist.
+     */
+    @Builder.Default
+    private final Weighted<Integer> fileSizes = Weighted.parse("1024=70,16384=25,262144=5", Integer::valueOf);
+    /**
+     * Cap on operations in flight; arrivals beyond it wait, and that wait is part of their response time.
+     */
+    @Builder.Default
+    private final int maxInFlight = 64;
+    /**
+     * Gists created before the run, so that reads, updates and deletes have targets from the start.
+     */
+    @Builder.Default
+    private final int seedGists = 20;
+    @Builder.Default
+    private final double maxErrorRate = 0.01;
+    @Builder.Default
+    private final Path report = Path.of("target", "load-report.json");
+
+    /**
+     * Reads {@code -Dload.rate=50 -Dload.duration=2m -Dload.warmup=10s -Dload.mix=get=80,create=20
+     * -Dload.fileSizes=1024=90,1048576=10 -Dload.maxInFlight=128 -Dload.seedGists=100 -Dload.maxErrorRate=0.05
+     * -Dload.report=target/load.json}; missing properties keep their defaults.
+     */
+    public static LoadProfile fromSystemProperties() {
+        var builder = LoadProfile.builder();
+        property("load.rate").ifPresent(value -> builder.rate(Double.parseDouble(value)));
+        property("load.duration").ifPresent(value -> builder.duration(parseDuration(value)));
+        property("load.warmup").ifPresent(value -> builder.warmup(parseDuration(value)));
+        property("load.mix").ifPresent(value -> builder.mix(Weighted.parse(value, Operation::parse)));
+        property("load.fileSizes").ifPresent(value -> builder.fileSizes(Weighted.parse(value, Integer::valueOf)));
+        property("load.maxInFlight").ifPresent(value -> builder.maxInFlight(Integer.parseInt(value)));
+        property("load.seedGists").ifPresent(value -> builder.seedGists(Integer.parseInt(value)));
+        property("load.maxErrorRate").ifPresent(value -> builder.maxErrorRate(Double.parseDouble(value)));
+        property("load.report").ifPresent(value -> builder.report(Path.of(value)));
+        return builder.build();
+    }
+
+    private static Optional<String> property(String name) {
+        var value = System.getProperty(name);
+        return Objects.isNull(value) || value.isBlank() ? Optional.empty() : Optional.of(value.trim());
+    }
+
+    /**
+     * @param value {@code 90s}, {@code 2m}, {@code 1h30m} or a number of seconds
+     */
+    static Duration parseDuration(String value) {
+        return value.chars().allMatch(Character::isDigit)
+                ? Duration.ofSeconds(Long.parseLong(value))
+                : Duration.parse("PT" + value.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.test.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.rest.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and throughput of one load run.
+ * <p>
+ * Response time is measured from the moment an operation was scheduled to start, service time from the moment it
+ * was actually sent. Under overload the two diverge: a closed loop would only ever see service time and hide the
+ * queueing (coordinated omission), so response time is the one to judge a setup by. Operations scheduled during
+ * warmup show up in the timeline but not in the percentiles.
+ */
+public final class LoadReport {
+    private static final double[] QUANTILES = {0.5, 0.75, 0.9, 0.99, 0.999, 0.9999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p75", "p90", "p99", "p999", "p9999"};
+    private final LoadProfile profile;
+    private final String target;
+    private final long start;
+    private final long measureFrom;
+    private final Map<Operation, Stats> operations = new EnumMap<>(Operation.class);
+    private final Stats all = new Stats();
+    private final Second[] timeline;
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    LoadReport(LoadProfile profile, String target, long start) {
+        this.profile = profile;
+        this.target = target;
+        this.start = start;
+        this.measureFrom = start + profile.getWarmup().toNanos();
+        for (var operation : Operation.values()) {
+            operations.put(operation, new Stats());
+        }
+        // completions may trail the schedule by up to a response timeout
+        timeline = new Second[(int) profile.getDuration().toSeconds() + 61];
+        for (var i = 0; i < timeline.length; i++) {
+            timeline[i] = new Second();
+        }
+    }
+
+    private static final class Stats {
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    private static final class Second {
+        private final LongAdder scheduled = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+    }
+
+    void scheduled(long intended) {
+        second(intended).scheduled.increment();
+    }
+
+    void completed(Operation operation, long intended, long sent, long completed, boolean successful) {
+        lastCompletion.accumulateAndGet(completed, Math::max);
+        var second = second(completed);
+        second.completed.increment();
+        second.responseTime.record(completed - intended);
+        if (!successful) {
+            second.errors.increment();
+        }
+        if (intended < measureFrom) {
+            return;
+        }
+        for (var stats : List.of(operations.get(operation), all)) {
+            stats.responseTime.record(completed - intended);
+            stats.serviceTime.record(completed - sent);
+            if (!successful) {
+                stats.errors.increment();
+            }
+        }
+    }
+
+    private Second second(long nanos) {
+        var index = (int) TimeUnit.NANOSECONDS.toSeconds(nanos - start);
+        return timeline[Math.max(0, Math.min(index, timeline.length - 1))];
+    }
+
+    /**
+     * @return share of failed operations after warmup
+     */
+    public double getErrorRate() {
+        var count = all.responseTime.getCount();
+        return count == 0 ? 0 : (double) all.errors.sum() / count;
+    }
+
+    /**
+     * @return operations completed per second after warmup, including the drain of those still in flight at the end
+     */
+    public double getThroughput() {
+        var elapsed = lastCompletion.get() - measureFrom;
+        return elapsed <= 0 ? 0 : all.responseTime.getCount() * 1e9 / elapsed;
+    }
+
+    public void write(Path path) throws IOException {
+        if (Objects.nonNull(path.getParent())) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, toJson());
+    }
+
+    public String toJson() throws IOException {
+        var root = new LinkedHashMap<String, Object>();
+        root.put("target", target);
+        root.put("rate", profile.getRate());
+        root.put("durationSeconds", profile.getDuration().toSeconds());
+        root.put("warmupSeconds", profile.getWarmup().toSeconds());
+        root.put("mix", profile.getMix().toString());
+        root.put("fileSizes", profile.getFileSizes().toString());
+        root.put("maxInFlight", profile.getMaxInFlight());
+        root.put("throughput", getThroughput());
+        root.put("errorRate", getErrorRate());
+        root.put("all", toMap(all));
+        var byOperation = new LinkedHashMap<String, Object>();
+        operations.forEach((operation, stats) -> {
+            if (stats.responseTime.getCount() > 0) {
+                byOperation.put(operation.name(), toMap(stats));
+            }
+        });
+        root.put("operations", byOperation);
+        var seconds = new ArrayList<Map<String, Object>>();
+        for (var i = 0; i < timeline.length; i++) {
+            var second = timeline[i];
+            if (second.scheduled.sum() == 0 && second.completed.sum() == 0) {
+                continue;
+            }
+            var entry = new LinkedHashMap<String, Object>();
+            entry.put("second", i);
+            entry.put("warmup", i < profile.getWarmup().toSeconds());
+            entry.put("scheduled", second.scheduled.sum());
+            entry.put("completed", second.completed.sum());
+            entry.put("errors", second.errors.sum());
+            entry.put("p99", second.responseTime.percentile(0.99));
+            seconds.add(entry);
+        }
+        root.put("timeline", seconds);
+        return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(root);
+    }
+
+    private static Map<String, Object> toMap(Stats stats) {
+        var map = new LinkedHashMap<String, Object>();
+        map.put("count", stats.responseTime.getCount());
+        map.put("errors", stats.errors.sum());
+        map.put("responseTime", percentiles(stats.responseTime));
+        map.put("serviceTime", percentiles(stats.serviceTime));
+        return map;
+    }
+
+    /**
+     * @return percentiles in microseconds
+     */
+    private static Map<String, Long> percentiles(LatencyHistogram histogram) {
+        var map = new LinkedHashMap<String, Long>();
+        for (var i = 0; i < QUANTILES.length; i++) {
+            map.put(QUANTILE_NAMES[i], histogram.percentile(QUANTILES[i]));
+        }
+        map.put("max", histogram.snapshot().getMax());
+        return map;
+    }
+
+    /**
+     * @return percentile table of response times in milliseconds, one row per operation
+     */
+    public String summary() {
+        var builder = new StringBuilder(String.format("%s at %.1f ops/s for %ds (warmup %ds): %.1f ops/s, %.2f%% errors%n",
+                target, profile.getRate(), profile.getDuration().toSeconds(), profile.getWarmup().toSeconds(),
+                getThroughput(), getErrorRate() * 100));
+        builder.append(String.format("%-7s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "p50", "p90", "p99", "p99.9", "p99.99", "max ms"));
+        operations.forEach((operation, stats) -> row(builder, operation.name(), stats));
+        row(builder, "ALL", all);
+        return builder.toString();
+    }
+
+    private static void row(StringBuilder builder, String name, Stats stats) {
+        var histogram = stats.responseTime;
+        if (histogram.getCount() == 0) {
+            return;
+        }
+        builder.append(String.format("%-7s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                histogram.getCount(), stats.errors.sum(), histogram.percentile(0.5) / 1000.0,
+                histogram.percentile(0.9) / 1000.0, histogram.percentile(0.99) / 1000.0,
+                histogram.percentile(0.999) / 1000.0, histogram.percentile(0.9999) / 1000.0,
+                histogram.snapshot().getMax() / 1000.0));
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.test.load;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Gist operations of a load workload with the statuses that count as success. A {@code 404} on an existing id is
+ * not an error: the gist may have been deleted by a concurrent {@link #DELETE}.
+ */
+public enum Operation {
+    CREATE(Set.of(201)),
+    GET(Set.of(200, 404)),
+    LIST(Set.of(200)),
+    UPDATE(Set.of(200, 404)),
+    DELETE(Set.of(204, 404));
+
+    private final Set<Integer> expected;
+
+    Operation(Set<Integer> expected) {
+        this.expected = expected;
+    }
+
+    public static Operation parse(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    boolean isExpected(int status) {
+        return expected.contains(status);
+    }
+
+    boolean needsGist() {
+        return this == GET || this == UPDATE || this == DELETE;
+    }
+}
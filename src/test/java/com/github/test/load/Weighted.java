@@ -0,0 +1,72 @@
+package com.github.test.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Picks values at random in proportion to their weights, e.g. {@code get=60,create=10} or {@code 1024=70,16384=30}.
+ */
+public final class Weighted<T> {
+    private final List<T> values;
+    private final long[] cumulative;
+
+    private Weighted(Map<T, Long> weights) {
+        this.values = new ArrayList<>(weights.keySet());
+        this.cumulative = new long[values.size()];
+        long total = 0;
+        for (var i = 0; i < values.size(); i++) {
+            total += weights.get(values.get(i));
+            cumulative[i] = total;
+        }
+    }
+
+    /**
+     * @param spec comma separated {@code value=weight} pairs; weights are relative and need not add up to 100
+     */
+    public static <T> Weighted<T> parse(String spec, Function<String, T> parser) {
+        var weights = new LinkedHashMap<T, Long>();
+        for (var pair : spec.split(",")) {
+            var parts = pair.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected value=weight but got '" + pair + "' in " + spec);
+            }
+            var weight = Long.parseLong(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + pair);
+            }
+            if (weight > 0) {
+                weights.merge(parser.apply(parts[0].trim()), weight, Long::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("No positive weight in " + spec);
+        }
+        return new Weighted<>(weights);
+    }
+
+    public T next() {
+        var point = ThreadLocalRandom.current().nextLong(cumulative[cumulative.length - 1]);
+        var index = Arrays.binarySearch(cumulative, point + 1);
+        return values.get(index >= 0 ? index : -index - 1);
+    }
+
+    public List<T> getValues() {
+        return Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder();
+        for (var i = 0; i < values.size(); i++) {
+            builder.append(i == 0 ? "" : ",").append(values.get(i)).append('=')
+                    .append(cumulative[i] - (i == 0 ? 0 : cumulative[i - 1]));
+        }
+        return builder.toString();
+    }
+}
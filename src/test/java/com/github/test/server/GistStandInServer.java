@@ -0,0 +1,898 @@
+package com.github.test.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.NameValuePair;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
+import org.apache.hc.core5.http.impl.bootstrap.ServerBootstrap;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import org.apache.hc.core5.http.message.BasicClassicHttpRequest;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.net.URIBuilder;
+import org.apache.hc.core5.util.TimeValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * In-memory stand-in for the gists part of the GitHub REST API, so that {@code ClientBase} and the tests can run
+ * without network access or rate limits. Point {@code baseUrl} at {@link #getBaseUrl()} (or run the suite with
+ * {@code -DbaseUrl=local}, see {@code BaseTest}).
+ * <p>
+ * Supported: create/get/update/delete of a gist, listing a user's gists with {@code page}, {@code per_page} and
+ * {@code since} plus {@code Link} headers, {@code raw_url} downloads with {@code Range}, truncation of files over
+ * 1 MB and of gists over 300 files, {@code ETag}/{@code If-None-Match}, gzip request and response bodies, and
+ * GitHub's error bodies for the cases the suite checks. Rate limiting is off unless turned on with
+ * {@link #setRateLimit(int, Duration)} or {@link #injectSecondaryLimit(String, int, int, int)}. Faults are injected
+ * with {@link #injectFault(String, int, int, Duration)}, {@link #injectBrokenBody(String, int, long)} and
+ * {@link #injectChunkedBody(String, int)}.
+ * Timestamps carry milliseconds so that {@code since} is meaningful at in-memory speed.
+ * Requests are served concurrently; every gist is replaced atomically on update.
+ */
+public class GistStandInServer implements AutoCloseable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int FILE_TRUNCATION_SIZE = 1024 * 1024;
+    private static final int MAX_FILES = 300;
+    private static final int MAX_DESCRIPTION_LENGTH = 256;
+    private static final int DEFAULT_PER_PAGE = 30;
+    private static final int MAX_PER_PAGE = 100;
+    private static final int MAX_MISSING_BRACES = 3;
+    private static final String DOCS = "https://docs.github.com/rest";
+    private static final Pattern GIST_PATH = Pattern.compile("/gists/([^/]*)");
+    private static final Pattern USER_GISTS_PATH = Pattern.compile("/users/([^/]+)/gists");
+    private static final Pattern RAW_PATH = Pattern.compile("/raw/([^/]+)/(.+)");
+    private static final int COMPRESSION_THRESHOLD = 1024;
+    private static final int MAX_CONCURRENT_STREAMS = 100;
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-");
+    private static GistStandInServer shared;
+
+    private final String owner;
+    private final String token;
+    private final Map<String, StoredGist> gists = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong lastMillis = new AtomicLong();
+    private final int port;
+    private final HttpServer server;
+    private final HttpAsyncServer h2Server;
+    private final ExecutorService h2Workers;
+    private final Queue<Fault> faults = new ConcurrentLinkedQueue<>();
+    private volatile RateLimit rateLimit;
+    private int h2Port;
+
+    public GistStandInServer(String owner, String token, int port) {
+        this(owner, token, port, false);
+    }
+
+    /**
+     * @param h2c serve HTTP/2 over plain connections (prior knowledge) instead of HTTP/1.1; the async server cannot
+     *            detect the h2c preface, so it speaks one or the other
+     */
+    public GistStandInServer(String owner, String token, int port, boolean h2c) {
+        this.owner = owner;
+        this.token = token;
+        this.port = port;
+        if (h2c) {
+            this.server = null;
+            this.h2Workers = Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, "stand-in-h2-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.h2Server = H2ServerBootstrap.bootstrap()
+                    .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                    .setH2Config(H2Config.custom().setMaxConcurrentStreams(MAX_CONCURRENT_STREAMS).build())
+                    .register("*", new BufferedExchange())
+                    .create();
+        } else {
+            this.server = ServerBootstrap.bootstrap()
+                    .setListenerPort(port)
+                    .register("*", this::handle)
+                    .create();
+            this.h2Server = null;
+            this.h2Workers = null;
+        }
+    }
+
+    /**
+     * @return server started once per JVM and shared by all test classes; {@link SharedStandInExtension} closes it
+     *         after the suite, as its listener thread would otherwise keep the JVM alive
+     */
+    public static synchronized GistStandInServer shared(String owner, String token) throws IOException {
+        if (Objects.isNull(shared)) {
+            shared = new GistStandInServer(owner, token, 0);
+            shared.start();
+        }
+        return shared;
+    }
+
+    static synchronized void closeShared() {
+        if (Objects.nonNull(shared)) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    public void start() throws IOException {
+        if (Objects.nonNull(server)) {
+            server.start();
+            return;
+        }
+        h2Server.start();
+        try {
+            var endpoint = h2Server.listen(new InetSocketAddress(port), URIScheme.HTTP).get();
+            h2Port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while binding port " + port);
+        } catch (ExecutionException e) {
+            throw new IOException("Cannot bind port " + port, e.getCause());
+        }
+    }
+
+    public String getRootUrl() {
+        return "http://localhost:" + (Objects.nonNull(server) ? server.getLocalPort() : h2Port);
+    }
+
+    public String getBaseUrl() {
+        return getRootUrl() + "/gists";
+    }
+
+    @Override
+    public void close() {
+        if (Objects.nonNull(server)) {
+            server.close(CloseMode.GRACEFUL);
+        } else {
+            h2Server.close(CloseMode.GRACEFUL);
+            h2Workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the classic handler for an exchange of the async (HTTP/2) server on a worker thread. Bodies are
+     * buffered on both sides, which also gets {@code 204}/{@code 304} responses right: they end the stream with
+     * the headers.
+     */
+    private final class BufferedExchange implements AsyncServerRequestHandler<Message<HttpRequest, byte[]>> {
+        @Override
+        public AsyncRequestConsumer<Message<HttpRequest, byte[]>> prepare(HttpRequest request,
+                                                                         EntityDetails entityDetails,
+                                                                         HttpContext context) {
+            return new BasicRequestConsumer<>(Objects.isNull(entityDetails) ? null : new BasicAsyncEntityConsumer());
+        }
+
+        @Override
+        public void handle(Message<HttpRequest, byte[]> message, ResponseTrigger trigger, HttpContext context) {
+            h2Workers.execute(() -> respond(message, trigger, context));
+        }
+
+        private void respond(Message<HttpRequest, byte[]> message, ResponseTrigger trigger, HttpContext context) {
+            try {
+                var request = message.getHead();
+                var classicRequest = new BasicClassicHttpRequest(request.getMethod(), request.getPath());
+                classicRequest.setHeaders(request.getHeaders());
+                if (Objects.nonNull(message.getBody())) {
+                    classicRequest.setEntity(new ByteArrayEntity(message.getBody(), null));
+                }
+                var classicResponse = new BasicClassicHttpResponse(200);
+                GistStandInServer.this.handle(classicRequest, classicResponse, context);
+                var response = new BasicHttpResponse(classicResponse.getCode());
+                response.setHeaders(classicResponse.getHeaders());
+                var entity = classicResponse.getEntity();
+                if (Objects.isNull(entity)) {
+                    trigger.submitResponse(new BasicResponseProducer(response), context);
+                    return;
+                }
+                if (Objects.nonNull(entity.getContentEncoding())) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, entity.getContentEncoding());
+                }
+                var contentType = Objects.isNull(entity.getContentType())
+                        ? null : ContentType.parse(entity.getContentType());
+                trigger.submitResponse(new BasicResponseProducer(response,
+                        new BasicAsyncEntityProducer(EntityUtils.toByteArray(entity), contentType)), context);
+            } catch (IOException | HttpException e) {
+                // submitting only fails once the stream is gone, there is nobody left to answer
+                throw new IllegalStateException("Stand-in failed to answer " + message.getHead(), e);
+            }
+        }
+    }
+
+    private static final class StoredGist {
+        private final String id;
+        private final String description;
+        private final boolean isPublic;
+        private final Instant createdAt;
+        private final Instant updatedAt;
+        private final long order;
+        private final Map<String, String> files;
+
+        StoredGist(String id, String description, boolean isPublic, Instant createdAt, Instant updatedAt, long order,
+                   Map<String, String> files) {
+            this.id = id;
+            this.description = description;
+            this.isPublic = isPublic;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+            this.order = order;
+            this.files = files;
+        }
+    }
+
+    private static final class ApiError extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+        private final ObjectNode body;
+
+        ApiError(int status, String message) {
+            super(message);
+            this.status = status;
+            this.body = MAPPER.createObjectNode().put("message", message);
+        }
+
+        static ApiError notFound() {
+            return new ApiError(404, "Not Found");
+        }
+
+        static ApiError validation(String field, String code, String message) {
+            var error = new ApiError(422, "Validation Failed");
+            var detail = error.body.putArray("errors").addObject()
+                    .put("resource", "Gist")
+                    .put("code", code)
+                    .put("field", field);
+            if (Objects.nonNull(message)) {
+                detail.put("message", message);
+            }
+            return error;
+        }
+    }
+
+    /**
+     * Makes the next {@code count} requests with this method wait for {@code delay} and then answer {@code status}
+     * with an error body, or as usual when {@code status} is {@code 0}.
+     */
+    public void injectFault(String method, int count, int status, Duration delay) {
+        faults.add(new Fault(method, count, status, delay, -1, -1, false));
+    }
+
+    /**
+     * Makes the next {@code count} requests with this method hit a secondary rate limit: {@code status} (GitHub
+     * sends {@code 403} or {@code 429}) with {@code Retry-After: retryAfterSeconds}.
+     */
+    public void injectSecondaryLimit(String method, int count, int status, int retryAfterSeconds) {
+        faults.add(new Fault(method, count, status, Duration.ZERO, retryAfterSeconds, -1, false));
+    }
+
+    /**
+     * Makes the next {@code count} requests with this method send only the first {@code bytes} of their response
+     * body and then drop the connection, like a transfer broken in flight. HTTP/1.1 only: the h2c mode buffers
+     * whole responses.
+     */
+    public void injectBrokenBody(String method, int count, long bytes) {
+        faults.add(new Fault(method, count, 0, Duration.ZERO, -1, bytes, false));
+    }
+
+    /**
+     * Makes the next {@code count} requests with this method get their response body chunked, without a
+     * {@code Content-Length}, so its size is only known once it has been read. HTTP/1.1 only.
+     */
+    public void injectChunkedBody(String method, int count) {
+        faults.add(new Fault(method, count, 0, Duration.ZERO, -1, -1, true));
+    }
+
+    /**
+     * Sends GitHub's {@code X-RateLimit-*} headers with every response and answers {@code 403} once {@code limit}
+     * requests were made in the current window; the window starts with its first request and resets on a whole
+     * second, like {@code X-RateLimit-Reset}. A {@code limit} of {@code 0} turns the primary rate limit off.
+     */
+    public void setRateLimit(int limit, Duration window) {
+        rateLimit = limit > 0 ? new RateLimit(limit, window.toMillis()) : null;
+    }
+
+    private static final class Fault {
+        private final String method;
+        private final AtomicInteger remaining;
+        private final int status;
+        private final Duration delay;
+        private final int retryAfter;
+        private final long breakAfter;
+        private final boolean chunked;
+
+        Fault(String method, int count, int status, Duration delay, int retryAfter, long breakAfter,
+              boolean chunked) {
+            this.method = method;
+            this.remaining = new AtomicInteger(count);
+            this.status = status;
+            this.delay = delay;
+            this.retryAfter = retryAfter;
+            this.breakAfter = breakAfter;
+            this.chunked = chunked;
+        }
+    }
+
+    private static final class RateLimit {
+        private final int limit;
+        private final long windowMillis;
+        private long resetAtMillis;
+        private int used;
+
+        RateLimit(int limit, long windowMillis) {
+            this.limit = limit;
+            this.windowMillis = windowMillis;
+        }
+
+        /**
+         * Counts the request and sets the headers.
+         *
+         * @return {@code false} if the window's budget was already used up
+         */
+        synchronized boolean take(ClassicHttpResponse response) {
+            var now = System.currentTimeMillis();
+            if (now >= resetAtMillis) {
+                resetAtMillis = (now + windowMillis + 999) / 1000 * 1000;
+                used = 0;
+            }
+            var allowed = used < limit;
+            if (allowed) {
+                used++;
+            }
+            response.setHeader("X-RateLimit-Limit", String.valueOf(limit));
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(limit - used));
+            response.setHeader("X-RateLimit-Reset", String.valueOf(resetAtMillis / 1000));
+            response.setHeader("X-RateLimit-Used", String.valueOf(used));
+            response.setHeader("X-RateLimit-Resource", "core");
+            return allowed;
+        }
+    }
+
+    private Fault takeFault(String method) {
+        for (var fault : faults) {
+            if (fault.method.equalsIgnoreCase(method) && fault.remaining.getAndDecrement() > 0) {
+                return fault;
+            }
+        }
+        faults.removeIf(fault -> fault.remaining.get() <= 0);
+        return null;
+    }
+
+    private void handle(ClassicHttpRequest request, ClassicHttpResponse response, HttpContext context) throws IOException {
+        var limit = rateLimit;
+        if (Objects.nonNull(limit) && !limit.take(response)) {
+            writeJson(response, 403, MAPPER.createObjectNode()
+                    .put("message", "API rate limit exceeded for " + owner + ".")
+                    .put("documentation_url", DOCS));
+            return;
+        }
+        var fault = takeFault(request.getMethod());
+        if (Objects.nonNull(fault)) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(fault.delay.toNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (fault.retryAfter >= 0) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(fault.retryAfter));
+                writeJson(response, fault.status, MAPPER.createObjectNode()
+                        .put("message", "You have exceeded a secondary rate limit.")
+                        .put("documentation_url", DOCS));
+                return;
+            }
+            if (fault.status > 0) {
+                writeJson(response, fault.status, MAPPER.createObjectNode().put("message", "Injected fault"));
+                return;
+            }
+        }
+        try {
+            route(request, response);
+        } catch (ApiError e) {
+            e.body.put("documentation_url", DOCS);
+            writeJson(response, e.status, e.body);
+        }
+        if (Objects.nonNull(fault) && (fault.breakAfter >= 0 || fault.chunked)
+                && Objects.nonNull(response.getEntity())) {
+            response.setEntity(new FaultyEntity(response.getEntity(), fault.breakAfter, fault.chunked));
+        }
+    }
+
+    /**
+     * Hides the length of the body, or writes only its first bytes and then fails, which makes the server drop
+     * the connection.
+     */
+    private static final class FaultyEntity extends HttpEntityWrapper {
+        private final HttpEntity entity;
+        private final long breakAfter;
+        private final boolean chunked;
+
+        FaultyEntity(HttpEntity entity, long breakAfter, boolean chunked) {
+            super(entity);
+            this.entity = entity;
+            this.breakAfter = breakAfter;
+            this.chunked = chunked;
+        }
+
+        @Override
+        public long getContentLength() {
+            return chunked ? -1 : super.getContentLength();
+        }
+
+        @Override
+        public boolean isChunked() {
+            return chunked || super.isChunked();
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            if (breakAfter < 0) {
+                super.writeTo(out);
+                return;
+            }
+            var body = EntityUtils.toByteArray(entity);
+            out.write(body, 0, (int) Math.min(breakAfter, body.length));
+            out.flush();
+            throw new IOException("Injected broken body after " + breakAfter + " bytes");
+        }
+    }
+
+    private void route(ClassicHttpRequest request, ClassicHttpResponse response) throws IOException, ApiError {
+        var path = request.getPath().split("\\?", 2)[0];
+        var method = request.getMethod();
+        if (path.equals("/gists") && Method.POST.isSame(method)) {
+            create(request, response);
+            return;
+        }
+        var gistPath = GIST_PATH.matcher(path);
+        if (gistPath.matches() && !gistPath.group(1).isEmpty()) {
+            var id = gistPath.group(1);
+            if (Method.GET.isSame(method)) {
+                writeJson(request, response, 200, toJson(find(id), true));
+                return;
+            }
+            if (Method.PATCH.isSame(method)) {
+                update(id, request, response);
+                return;
+            }
+            if (Method.DELETE.isSame(method)) {
+                delete(id, request, response);
+                return;
+            }
+        }
+        var userGistsPath = USER_GISTS_PATH.matcher(path);
+        if (userGistsPath.matches() && Method.GET.isSame(method)) {
+            list(userGistsPath.group(1), request, response);
+            return;
+        }
+        var rawPath = RAW_PATH.matcher(path);
+        if (rawPath.matches() && Method.GET.isSame(method)) {
+            var content = find(rawPath.group(1)).files.get(rawPath.group(2));
+            if (Objects.isNull(content)) {
+                throw ApiError.notFound();
+            }
+            raw(content, request, response);
+            return;
+        }
+        throw ApiError.notFound();
+    }
+
+    /**
+     * Serves file content, honouring a single open-ended {@code Range: bytes=N-} like the raw host does.
+     */
+    private void raw(String content, ClassicHttpRequest request, ClassicHttpResponse response) {
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        var contentType = ContentType.TEXT_PLAIN.withCharset(StandardCharsets.UTF_8);
+        var range = request.getFirstHeader(HttpHeaders.RANGE);
+        var rangeMatch = Objects.isNull(range) ? null : RANGE.matcher(range.getValue());
+        if (Objects.isNull(rangeMatch) || !rangeMatch.matches()) {
+            response.setCode(200);
+            response.setEntity(new ByteArrayEntity(bytes, contentType));
+            return;
+        }
+        var start = Long.parseLong(rangeMatch.group(1));
+        if (start >= bytes.length) {
+            response.setCode(416);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + bytes.length);
+            return;
+        }
+        response.setCode(206);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (bytes.length - 1) + "/" + bytes.length);
+        response.setEntity(new ByteArrayEntity(bytes, (int) start, bytes.length - (int) start, contentType));
+    }
+
+    private void create(ClassicHttpRequest request, ClassicHttpResponse response) throws IOException, ApiError {
+        if (!isAuthenticated(request)) {
+            throw new ApiError(401, "Requires authentication");
+        }
+        var body = readBody(request);
+        if (!body.has("files")) {
+            throw new ApiError(422, "Invalid input: object is missing required key: files.");
+        }
+        var description = textOrNull(body.get("description"));
+        validateDescription(description);
+        var files = new LinkedHashMap<String, String>();
+        var filesNode = body.get("files");
+        if (filesNode.isObject()) {
+            var it = filesNode.fields();
+            while (it.hasNext()) {
+                var file = it.next();
+                var content = file.getValue().isObject() ? textOrNull(file.getValue().get("content")) : null;
+                if (Objects.isNull(content) || content.isBlank()) {
+                    continue;
+                }
+                var name = file.getKey().isBlank() ? "gistfile" + (files.size() + 1) + ".txt" : file.getKey();
+                validateFilename(name);
+                files.put(name, content);
+            }
+        }
+        if (files.isEmpty()) {
+            throw ApiError.validation("files", "missing_field", null);
+        }
+        var now = now();
+        var gist = new StoredGist(UUID.randomUUID().toString().replace("-", ""), Objects.requireNonNullElse(description, ""),
+                isPublic(body.get("public")), now, now, sequence.incrementAndGet(), files);
+        gists.put(gist.id, gist);
+        writeJson(response, 201, toJson(gist, true));
+    }
+
+    private void update(String id, ClassicHttpRequest request, ClassicHttpResponse response) throws IOException, ApiError {
+        if (!isAuthenticated(request)) {
+            throw ApiError.notFound();
+        }
+        var body = readBody(request);
+        var description = body.has("description") ? textOrNull(body.get("description")) : null;
+        validateDescription(description);
+        var changes = body.get("files");
+        while (true) {
+            var current = find(id);
+            var files = new LinkedHashMap<>(current.files);
+            if (Objects.nonNull(changes) && changes.isObject()) {
+                applyFileChanges(files, changes);
+            }
+            var updated = new StoredGist(current.id, Objects.requireNonNullElse(description, current.description),
+                    current.isPublic, current.createdAt, now(), current.order, files);
+            // compare-and-set against concurrent updates of the same gist
+            if (gists.replace(id, current, updated)) {
+                writeJson(response, 200, toJson(updated, true));
+                return;
+            }
+        }
+    }
+
+    private static void applyFileChanges(Map<String, String> files, JsonNode changes) throws ApiError {
+        var it = changes.fields();
+        while (it.hasNext()) {
+            var change = it.next();
+            var name = change.getKey();
+            var value = change.getValue();
+            if (value.isNull()) {
+                files.remove(name);
+                continue;
+            }
+            var content = textOrNull(value.get("content"));
+            var newName = Objects.requireNonNullElse(textOrNull(value.get("filename")), name);
+            var previous = files.get(name);
+            if (Objects.isNull(content)) {
+                content = previous;
+            }
+            if (Objects.isNull(content) || content.isBlank() || newName.isBlank()) {
+                throw ApiError.validation("files", "missing_field", null);
+            }
+            validateFilename(newName);
+            files.remove(name);
+            files.put(newName, content);
+        }
+    }
+
+    private void delete(String id, ClassicHttpRequest request, ClassicHttpResponse response) throws ApiError {
+        if (!isAuthenticated(request) || Objects.isNull(gists.remove(id))) {
+            throw ApiError.notFound();
+        }
+        response.setCode(204);
+    }
+
+    private void list(String user, ClassicHttpRequest request, ClassicHttpResponse response) throws IOException, ApiError {
+        var params = queryParams(request);
+        var page = intParam(params, "page", 1);
+        var perPage = Math.min(MAX_PER_PAGE, intParam(params, "per_page", DEFAULT_PER_PAGE));
+        Instant since;
+        try {
+            since = params.containsKey("since") ? Instant.parse(params.get("since")) : Instant.MIN;
+        } catch (DateTimeParseException e) {
+            throw new ApiError(422, "Invalid request. Invalid 'since' value.");
+        }
+        var includeSecret = user.equals(owner) && isAuthenticated(request);
+        var matching = user.equals(owner)
+                ? gists.values().stream()
+                .filter(gist -> includeSecret || gist.isPublic)
+                .filter(gist -> !gist.updatedAt.isBefore(since))
+                .sorted(Comparator.comparingLong((StoredGist gist) -> gist.order).reversed())
+                .collect(Collectors.toList())
+                : List.<StoredGist>of();
+        var body = MAPPER.createArrayNode();
+        matching.stream().skip((long) (page - 1) * perPage).limit(perPage).forEach(gist -> body.add(toJson(gist, false)));
+        var lastPage = Math.max(1, (matching.size() + perPage - 1) / perPage);
+        if (page < lastPage) {
+            response.addHeader("Link", "<" + pageUrl(request, params, page + 1) + ">; rel=\"next\", <"
+                    + pageUrl(request, params, lastPage) + ">; rel=\"last\"");
+        }
+        writeJson(request, response, 200, body);
+    }
+
+    private String pageUrl(ClassicHttpRequest request, Map<String, String> params, int page) {
+        try {
+            var builder = new URIBuilder(getRootUrl() + request.getPath().split("\\?", 2)[0]);
+            params.forEach((name, value) -> {
+                if (!name.equals("page")) {
+                    builder.addParameter(name, value);
+                }
+            });
+            return builder.addParameter("page", String.valueOf(page)).build().toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private StoredGist find(String id) throws ApiError {
+        var gist = gists.get(id);
+        if (Objects.isNull(gist)) {
+            throw ApiError.notFound();
+        }
+        return gist;
+    }
+
+    private ObjectNode toJson(StoredGist gist, boolean withContent) {
+        var json = MAPPER.createObjectNode()
+                .put("url", getBaseUrl() + "/" + gist.id)
+                .put("id", gist.id);
+        var files = json.putObject("files");
+        var count = 0;
+        for (var file : gist.files.entrySet()) {
+            if (++count > MAX_FILES) {
+                break;
+            }
+            var content = file.getValue();
+            var fileJson = files.putObject(file.getKey())
+                    .put("filename", file.getKey())
+                    .put("raw_url", getRootUrl() + "/raw/" + gist.id + "/" + file.getKey())
+                    .put("size", content.getBytes(StandardCharsets.UTF_8).length);
+            if (withContent) {
+                var truncated = content.length() > FILE_TRUNCATION_SIZE;
+                fileJson.put("truncated", truncated)
+                        .put("content", truncated ? content.substring(0, FILE_TRUNCATION_SIZE) : content);
+            }
+        }
+        json.put("public", gist.isPublic)
+                .put("created_at", gist.createdAt.toString())
+                .put("updated_at", gist.updatedAt.toString())
+                .put("description", gist.description);
+        json.putObject("owner")
+                // owner links keep GitHub's canonical form, clients treat them as opaque
+                .put("login", owner)
+                .put("url", "https://api.github.com/users/" + owner);
+        json.put("truncated", gist.files.size() > MAX_FILES);
+        return json;
+    }
+
+    private boolean isAuthenticated(ClassicHttpRequest request) {
+        var authorization = request.getFirstHeader(HttpHeaders.AUTHORIZATION);
+        return Objects.nonNull(authorization) && authorization.getValue().equals("Bearer " + token);
+    }
+
+    /**
+     * Parses the request body as leniently as GitHub does: objects left open at the end of the input are closed
+     * (the suite's body templates rely on that), anything else malformed, including invalid UTF-8, is rejected.
+     */
+    private static byte[] requestBytes(ClassicHttpRequest request) throws IOException, ApiError {
+        var entity = request.getEntity();
+        if (Objects.isNull(entity)) {
+            return new byte[0];
+        }
+        var encoding = request.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        if (Objects.isNull(encoding) || "identity".equalsIgnoreCase(encoding.getValue())) {
+            return EntityUtils.toByteArray(entity);
+        }
+        if (!"gzip".equalsIgnoreCase(encoding.getValue())) {
+            throw new ApiError(415, "Unsupported Content-Encoding");
+        }
+        try (var gzip = new GZIPInputStream(entity.getContent())) {
+            return gzip.readAllBytes();
+        } catch (ZipException e) {
+            throw new ApiError(400, "Problems parsing JSON");
+        }
+    }
+
+    private static JsonNode readBody(ClassicHttpRequest request) throws IOException, ApiError {
+        String json;
+        try {
+            json = StandardCharsets.UTF_8.newDecoder()
+                    .decode(ByteBuffer.wrap(requestBytes(request)))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            throw new ApiError(400, "Problems parsing JSON");
+        }
+        for (var missingBraces = 0; missingBraces <= MAX_MISSING_BRACES; missingBraces++) {
+            try {
+                var body = MAPPER.readTree(json + "}".repeat(missingBraces));
+                if (Objects.isNull(body) || !body.isObject()) {
+                    break;
+                }
+                return body;
+            } catch (JsonEOFException e) {
+                // try again with one more closing brace
+            } catch (JsonProcessingException e) {
+                break;
+            }
+        }
+        throw new ApiError(400, "Problems parsing JSON");
+    }
+
+    private static void validateDescription(String description) throws ApiError {
+        if (Objects.nonNull(description) && description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw ApiError.validation("description", "custom",
+                    "description is too long (maximum is " + MAX_DESCRIPTION_LENGTH + " characters)");
+        }
+    }
+
+    private static void validateFilename(String filename) throws ApiError {
+        if (filename.contains("/")) {
+            throw ApiError.validation("files", "invalid", "Contents can't be in a subdirectory");
+        }
+    }
+
+    private static boolean isPublic(JsonNode value) {
+        return Objects.nonNull(value) && (value.isBoolean() ? value.booleanValue() : "true".equals(value.asText()));
+    }
+
+    private static String textOrNull(JsonNode value) {
+        return Objects.isNull(value) || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * @return strictly increasing millisecond timestamps, so that gists created back to back stay ordered for
+     * {@code since}
+     */
+    private Instant now() {
+        var millis = lastMillis.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+        return Instant.ofEpochMilli(millis).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static Map<String, String> queryParams(ClassicHttpRequest request) throws ApiError {
+        try {
+            return new URIBuilder(request.getUri()).getQueryParams().stream()
+                    .collect(Collectors.toMap(NameValuePair::getName, NameValuePair::getValue, (first, second) -> second));
+        } catch (URISyntaxException e) {
+            throw new ApiError(400, "Invalid request URI");
+        }
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) throws ApiError {
+        var value = params.get(name);
+        if (Objects.isNull(value)) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            throw new ApiError(422, "Invalid request. Invalid '" + name + "' value.");
+        }
+    }
+
+    private static void writeJson(ClassicHttpResponse response, int status, JsonNode body) throws IOException {
+        response.setCode(status);
+        response.setEntity(new ByteArrayEntity(MAPPER.writeValueAsBytes(body), ContentType.APPLICATION_JSON));
+    }
+
+    /**
+     * Writes a cacheable representation: answers {@code If-None-Match} with {@code 304} when the body is unchanged.
+     */
+    private static void writeJson(ClassicHttpRequest request, ClassicHttpResponse response, int status, JsonNode body)
+            throws IOException {
+        var bytes = MAPPER.writeValueAsBytes(body);
+        var etag = "\"" + digest(bytes) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        var ifNoneMatch = request.getFirstHeader(HttpHeaders.IF_NONE_MATCH);
+        if (Objects.nonNull(ifNoneMatch) && ifNoneMatch.getValue().equals(etag)) {
+            response.setCode(304);
+            return;
+        }
+        response.setCode(status);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        var acceptEncoding = request.getFirstHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (bytes.length >= COMPRESSION_THRESHOLD && Objects.nonNull(acceptEncoding)
+                && acceptEncoding.getValue().contains("gzip")) {
+            var compressed = new ByteArrayOutputStream(bytes.length / 4);
+            try (var gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            response.setEntity(new ByteArrayEntity(compressed.toByteArray(), ContentType.APPLICATION_JSON, "gzip"));
+            return;
+        }
+        response.setEntity(new ByteArrayEntity(bytes, ContentType.APPLICATION_JSON));
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            var hex = new StringBuilder();
+            for (var i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs a standalone HTTP/1.1 server: {@code GistStandInServer <owner> <token> [port]}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var server = new GistStandInServer(args[0], args[1], args.length > 2 ? Integer.parseInt(args[2]) : 8089);
+        server.start();
+        System.out.println("Gist API stand-in listening on " + server.getBaseUrl());
+        if (Objects.nonNull(server.server)) {
+            server.server.awaitTermination(TimeValue.MAX_VALUE);
+        } else {
+            server.h2Server.awaitShutdown(TimeValue.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.test.server;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Closes the {@link GistStandInServer#shared(String, String) shared stand-in} when the whole test run ends: a
+ * resource in the root store is closed after the last test class, whichever classes ran and in which order.
+ */
+public class SharedStandInExtension implements BeforeAllCallback {
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        context.getRoot().getStore(ExtensionContext.Namespace.GLOBAL).getOrComputeIfAbsent(
+                SharedStandInExtension.class,
+                key -> (ExtensionContext.Store.CloseableResource) GistStandInServer::closeShared,
+                ExtensionContext.Store.CloseableResource.class);
+    }
+}